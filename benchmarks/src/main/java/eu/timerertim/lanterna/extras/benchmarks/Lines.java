@@ -0,0 +1,34 @@
+package eu.timerertim.lanterna.extras.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates the text used by the benchmarks.
+ */
+public class Lines {
+    private static final String[] WORDS = {"lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit",
+            "sed", "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua"};
+
+    private Lines() {
+    }
+
+    /**
+     * Creates a line of random words separated by single spaces.
+     * The same length always results in the same line.
+     *
+     * @param length the amount of characters of the line
+     * @return the line
+     */
+    public static String words(int length) {
+        Random random = new Random(length);
+        StringBuilder line = new StringBuilder(length + 16);
+        while (line.length() < length) {
+            if (line.length() > 0) {
+                line.append(' ');
+            }
+            line.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        line.setLength(length);
+        return line.toString();
+    }
+}
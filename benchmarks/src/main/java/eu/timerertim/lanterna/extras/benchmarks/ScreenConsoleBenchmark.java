@@ -0,0 +1,73 @@
+package eu.timerertim.lanterna.extras.benchmarks;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.screen.TerminalScreen;
+import com.googlecode.lanterna.terminal.virtual.DefaultVirtualTerminal;
+import eu.timerertim.lanterna.extras.console.ScreenConsole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of printing to a {@link ScreenConsole} drawing to a virtual terminal of 80x24 cells.
+ * <p>
+ * The console is updated by its render thread, so the cost of refreshing the terminal is included as far as
+ * it slows down printing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScreenConsoleBenchmark {
+    @Param({"80", "1000"})
+    private int lineLength;
+
+    private ScreenConsole console;
+    private String line;
+    private int printedLength;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        console = new ScreenConsole(new TerminalScreen(new DefaultVirtualTerminal(new TerminalSize(80, 24))));
+        console.setScrollbackLimit(10000);
+        line = Lines.words(lineLength);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        console.close();
+    }
+
+    /**
+     * Prints a word to the current line, starting a new one before it grows longer than the line length.
+     */
+    @Benchmark
+    public void print() {
+        console.print("word ");
+        printedLength += 5;
+        if (printedLength >= lineLength) {
+            console.print("\n");
+            printedLength = 0;
+        }
+    }
+
+    @Benchmark
+    public void println() {
+        console.println(line);
+    }
+}
@@ -0,0 +1,60 @@
+package eu.timerertim.lanterna.extras.benchmarks;
+
+import eu.timerertim.lanterna.extras.utils.TextUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures wrapping single lines of different lengths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextUtilsBenchmark {
+    @Param({"80", "1000", "100000"})
+    private int lineLength;
+
+    @Param({"80"})
+    private int columns;
+
+    private String line;
+
+    @Setup
+    public void setup() {
+        line = Lines.words(lineLength);
+    }
+
+    @Benchmark
+    public String[] applySoftwrapping() {
+        return TextUtils.applySoftwrapping(line, columns);
+    }
+
+    @Benchmark
+    public String[] applyHardwrapping() {
+        return TextUtils.applyHardwrapping(line, columns);
+    }
+
+    @Benchmark
+    public int countSoftwrappedRows() {
+        return TextUtils.countSoftwrappedRows(line, columns);
+    }
+
+    @Benchmark
+    public int countHardwrappedRows() {
+        return TextUtils.countHardwrappedRows(line, columns);
+    }
+}
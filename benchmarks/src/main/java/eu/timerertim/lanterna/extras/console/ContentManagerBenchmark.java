@@ -0,0 +1,87 @@
+package eu.timerertim.lanterna.extras.console;
+
+import com.googlecode.lanterna.TerminalSize;
+import eu.timerertim.lanterna.extras.benchmarks.Lines;
+import eu.timerertim.lanterna.extras.utils.WrappingMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations of the {@link ContentManager} on a console of 80x24 cells.
+ * <p>
+ * Lives in the console package, as the {@code ContentManager} is not part of the public API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContentManagerBenchmark {
+    private static final TerminalSize SIZE = new TerminalSize(80, 24);
+    private static final int SCROLLBACK = 10000; //Lines kept, so the content does not grow during a measurement
+
+    @Param({"SOFTWRAPPING", "HARDWRAPPING"})
+    private WrappingMode wrapping;
+
+    @Param({"80", "1000"})
+    private int lineLength;
+
+    private ContentManager contentManager;
+    private String line;
+    private int scrollPosition;
+    private int appendedLength;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        contentManager = new ContentManager(SIZE, wrapping);
+        contentManager.setScrollbackLimit(SCROLLBACK);
+        line = Lines.words(lineLength);
+        for (int index = 0; index < SCROLLBACK; index++) {
+            contentManager.addLine(line);
+        }
+        scrollPosition = 0;
+        appendedLength = 0;
+    }
+
+    @Benchmark
+    public void addLine() {
+        contentManager.addLine(line);
+    }
+
+    /**
+     * Appends a word to a line, starting a new one before it grows longer than the line length.
+     */
+    @Benchmark
+    public void appendLine() {
+        contentManager.appendLine("word ");
+        appendedLength += 5;
+        if (appendedLength >= lineLength) {
+            contentManager.addLine("");
+            appendedLength = 0;
+        }
+    }
+
+    /**
+     * Scrolls through the content one row at a time, so every fill brings a new row into view.
+     */
+    @Benchmark
+    public String[] fillDisplayContent() {
+        scrollPosition = (scrollPosition + 1) % (contentManager.getRowCount() - SIZE.getRows());
+        contentManager.fillDisplayContent(scrollPosition);
+        contentManager.getDirtyRows().clear();
+        return contentManager.getDisplayContent();
+    }
+}
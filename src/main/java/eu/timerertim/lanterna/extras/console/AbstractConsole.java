@@ -5,6 +5,10 @@ import com.googlecode.lanterna.input.KeyType;
 import eu.timerertim.lanterna.extras.handlers.ConsoleInputListener;
 import eu.timerertim.lanterna.extras.utils.WrappingMode;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 abstract class AbstractConsole implements Console {
     // Essential components
     protected ContentManager contentManager;
@@ -13,11 +17,17 @@ abstract class AbstractConsole implements Console {
     protected int scrollPosition;
     protected boolean closed;
 
+    // Metrics
+    protected final ConsoleMetrics metrics;
+    protected volatile ConsoleMetricsListener[] metricsListeners; //Empty if nothing is measured, replaced on every change
+
     // Options
     protected boolean autoUpdate;
     protected boolean autoScrolling;
     protected boolean autoResize;
-    protected KeyType skipTextAnimationKey; //This variable is null if animated println is deactivated
+    protected int frameRate;
+    protected volatile boolean concurrent; //Read by printing threads without holding the lock
+    protected volatile KeyType skipTextAnimationKey; //This variable is null if animated println is deactivated, read by printing and input threads
 
     // Config
     protected TextColor textColor;
@@ -46,12 +56,16 @@ abstract class AbstractConsole implements Console {
         this.closed = false;
         this.autoScrolling = true;
         this.autoResize = true;
+        this.frameRate = 60;
+        this.concurrent = false;
         this.scrollPosition = 0;
         this.skipTextAnimationKey = null;
         this.textColor = TextColor.ANSI.WHITE;
         this.backgroundColor = TextColor.ANSI.BLACK;
         this.wrapping = WrappingMode.SOFTWRAPPING;
         this.readLinePrompt = ">";
+        this.metrics = new ConsoleMetrics(this);
+        this.metricsListeners = new ConsoleMetricsListener[0];
     }
 
     @Override
@@ -64,6 +78,19 @@ abstract class AbstractConsole implements Console {
         this.autoUpdate = autoUpdate;
     }
 
+    @Override
+    public int getFrameRate() {
+        return frameRate;
+    }
+
+    @Override
+    public void setFrameRate(int frameRate) {
+        if (frameRate <= 0) {
+            throw new IllegalArgumentException("Frame rate has to be positive: " + frameRate);
+        }
+        this.frameRate = frameRate;
+    }
+
     @Override
     public boolean isTextAnimated() {
         return skipTextAnimationKey != null;
@@ -74,6 +101,11 @@ abstract class AbstractConsole implements Console {
         this.skipTextAnimationKey = skipTextAnimationKey;
     }
 
+    @Override
+    public KeyType getSkipTextAnimationKey() {
+        return skipTextAnimationKey;
+    }
+
     @Override
     public WrappingMode getWrapping() {
         return wrapping;
@@ -81,9 +113,8 @@ abstract class AbstractConsole implements Console {
 
     @Override
     public void setWrapping(WrappingMode wrapping) {
-        //TODO: rewrapping when changing WrappingMode
         this.wrapping = wrapping;
-        contentManager.setWrapping(wrapping);
+        reflow();
     }
 
     @Override
@@ -116,6 +147,89 @@ abstract class AbstractConsole implements Console {
         this.autoScrolling = autoScrolling;
     }
 
+    @Override
+    public int getScrollbackLimit() {
+        return contentManager.getScrollbackLimit();
+    }
+
+    @Override
+    public void setScrollbackLimit(int lines) {
+        if (lines < 0) {
+            throw new IllegalArgumentException("Scrollback limit must not be negative: " + lines);
+        }
+        contentManager.setScrollbackLimit(lines);
+    }
+
+    @Override
+    public long getScrollbackMemoryUsage() {
+        return contentManager.getMemoryUsage();
+    }
+
+    @Override
+    public boolean isCompactScrollback() {
+        return contentManager.isCompactScrollback();
+    }
+
+    @Override
+    public void setCompactScrollback(boolean compact) {
+        contentManager.setCompactScrollback(compact);
+    }
+
+    @Override
+    public boolean isSearchIndexed() {
+        return contentManager.isSearchIndexed();
+    }
+
+    @Override
+    public void setSearchIndexed(boolean indexed) {
+        contentManager.setSearchIndexed(indexed);
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    @Override
+    public void setConcurrent(boolean concurrent) {
+        this.concurrent = concurrent;
+    }
+
+    @Override
+    public boolean isMetricsEnabled() {
+        return Arrays.asList(metricsListeners).contains(metrics);
+    }
+
+    @Override
+    public synchronized void setMetricsEnabled(boolean enabled) {
+        if (enabled != isMetricsEnabled()) {
+            if (enabled) {
+                addMetricsListener(metrics);
+            } else {
+                removeMetricsListener(metrics);
+            }
+        }
+    }
+
+    @Override
+    public ConsoleMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public synchronized void addMetricsListener(ConsoleMetricsListener listener) {
+        ConsoleMetricsListener[] listeners = Arrays.copyOf(metricsListeners, metricsListeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        metricsListeners = listeners;
+    }
+
+    @Override
+    public synchronized void removeMetricsListener(ConsoleMetricsListener listener) {
+        List<ConsoleMetricsListener> listeners = new ArrayList<>(Arrays.asList(metricsListeners));
+        listeners.remove(listener);
+        metricsListeners = listeners.toArray(new ConsoleMetricsListener[0]);
+    }
+
     @Override
     public boolean isAutoResize() {
         return autoResize;
@@ -135,4 +249,12 @@ abstract class AbstractConsole implements Console {
     public void setReadLinePrompt(String readLinePrompt) {
         this.readLinePrompt = readLinePrompt;
     }
+
+    /**
+     * Rewraps the existing content of this console.
+     * <p>
+     * Called whenever the wrapping of this console changed, so the content
+     * is displayed using the new {@link AbstractConsole#wrapping}.
+     */
+    protected abstract void reflow();
 }
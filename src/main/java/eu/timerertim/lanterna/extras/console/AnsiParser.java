@@ -0,0 +1,281 @@
+package eu.timerertim.lanterna.extras.console;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TextColor;
+
+import java.util.EnumSet;
+import java.util.Objects;
+
+/**
+ * State machine turning text containing ANSI escape sequences into styled content.
+ * <p>
+ * The text can be passed in arbitrary pieces, as the state is kept in between, so escape sequences
+ * may be split across pieces. Plain text is appended to the content directly from the passed array,
+ * so only completed lines become {@code String}s.
+ * <p>
+ * SGR sequences (colors and modifiers) are applied to the following text. Extended colors are read both
+ * in the common form separated by semicolons ({@code ESC[38;2;R;G;Bm}) and in the ITU T.416 form separated
+ * by colons ({@code ESC[38:2::R:G:Bm}), whose sub-parameters never count as codes of their own.
+ * A carriage return lets the following text replace the current line, as {@link Console#print(String)} does. Every other
+ * escape sequence, like cursor movements, is skipped, as it has no meaning for the content of a console.
+ */
+class AnsiParser {
+    private static final char ESCAPE = '\u001B';
+    private static final char BELL = '\u0007';
+    private static final int MAX_PARAMETERS = 16;
+    private static final int RECENT_STYLES = 4;
+
+    // States
+    private static final int TEXT = 0;
+    private static final int ESCAPE_SEQUENCE = 1; //After an ESC
+    private static final int CONTROL_SEQUENCE = 2; //After ESC [, collecting the parameters
+    private static final int OPERATING_SYSTEM_COMMAND = 3; //After ESC ], skipped until BEL or ESC \
+    private static final int OPERATING_SYSTEM_COMMAND_ESCAPE = 4;
+    private static final int CHARACTER_SET = 5; //After ESC ( or similar, skipping one more character
+
+    private int state;
+    private final int[] parameters;
+    private final boolean[] subParameters; //Whether a parameter was separated by a colon, belonging to the one in front of it
+    private int parameterCount;
+    private boolean privateSequence; //Sequences starting with a marker like ? are never SGR sequences
+    private boolean carriageReturn; //Whether the next text replaces the current line
+
+    // Current style
+    private TextColor foreground;
+    private TextColor background;
+    private final EnumSet<SGR> modifiers;
+    private TextStyle style; //Created from the fields above, null if it has to be recreated
+    private final TextStyle[] recentStyles; //Styles created last, reused so styles switching back and forth are looked up quickly
+    private int nextRecentStyle;
+
+    AnsiParser() {
+        this.state = TEXT;
+        this.parameters = new int[MAX_PARAMETERS];
+        this.subParameters = new boolean[MAX_PARAMETERS];
+        this.modifiers = EnumSet.noneOf(SGR.class);
+        this.style = TextStyle.DEFAULT;
+        this.recentStyles = new TextStyle[RECENT_STYLES];
+    }
+
+    /**
+     * Parses a piece of text and applies it to the content.
+     *
+     * @param chars   the array containing the text
+     * @param offset  the index of the first character to parse
+     * @param length  the amount of characters to parse
+     * @param content the content the text is added to
+     */
+    void parse(char[] chars, int offset, int length, ContentManager content) {
+        int end = offset + length;
+        int textStart = offset; //Start of the plain text not yet appended
+        for (int index = offset; index < end; index++) {
+            char character = chars[index];
+            if (state == TEXT) {
+                if (character >= ' ' || character == '\t') {
+                    continue;
+                }
+
+                // Control characters end the plain text in front of them
+                appendText(chars, textStart, index, content);
+                textStart = index + 1;
+                if (character == '\n') {
+                    content.addLine("");
+                    carriageReturn = false;
+                } else if (character == '\r') {
+                    carriageReturn = true;
+                } else if (character == ESCAPE) {
+                    state = ESCAPE_SEQUENCE;
+                }
+            } else {
+                parseEscaped(character);
+                textStart = index + 1;
+            }
+        }
+        if (state == TEXT) {
+            appendText(chars, textStart, end, content);
+        }
+    }
+
+    /**
+     * Advances the state machine by one character of an escape sequence.
+     */
+    private void parseEscaped(char character) {
+        if (state == ESCAPE_SEQUENCE) {
+            if (character == '[') {
+                state = CONTROL_SEQUENCE;
+                parameterCount = 0;
+                parameters[0] = 0;
+                privateSequence = false;
+            } else if (character == ']') {
+                state = OPERATING_SYSTEM_COMMAND;
+            } else if (character == '(' || character == ')' || character == '*' || character == '+') {
+                state = CHARACTER_SET;
+            } else {
+                state = TEXT;
+            }
+        } else if (state == CONTROL_SEQUENCE) {
+            if (character >= '0' && character <= '9') {
+                int parameter = parameters[parameterCount];
+                parameters[parameterCount] = parameter < 100_000 ? parameter * 10 + character - '0' : parameter;
+            } else if (character == ';' || character == ':') {
+                if (parameterCount < MAX_PARAMETERS - 1) {
+                    parameters[++parameterCount] = 0;
+                    subParameters[parameterCount] = character == ':';
+                }
+            } else if (character >= '<' && character <= '?') {
+                privateSequence = true;
+            } else if (character >= '@' && character <= '~') {
+                if (character == 'm' && !privateSequence) {
+                    applySgr(parameterCount + 1);
+                }
+                state = TEXT;
+            } else if (character < ' ') {
+                state = TEXT; //Malformed sequence
+            }
+        } else if (state == OPERATING_SYSTEM_COMMAND) {
+            if (character == BELL) {
+                state = TEXT;
+            } else if (character == ESCAPE) {
+                state = OPERATING_SYSTEM_COMMAND_ESCAPE;
+            }
+        } else {
+            state = TEXT;
+        }
+    }
+
+    private void appendText(char[] chars, int start, int end, ContentManager content) {
+        if (start < end) {
+            if (carriageReturn) {
+                content.replaceLine("");
+                carriageReturn = false;
+            }
+            content.appendLine(chars, start, end - start, getStyle());
+        }
+    }
+
+    private TextStyle getStyle() {
+        if (style == null) {
+            if (foreground == null && background == null && modifiers.isEmpty()) {
+                style = TextStyle.DEFAULT;
+            } else {
+                for (TextStyle recent : recentStyles) {
+                    if (recent != null && Objects.equals(foreground, recent.getForeground()) &&
+                            Objects.equals(background, recent.getBackground()) && modifiers.equals(recent.getModifierSet())) {
+                        style = recent;
+                        return style;
+                    }
+                }
+                style = new TextStyle(foreground, background, modifiers.toArray(new SGR[0]));
+                recentStyles[nextRecentStyle] = style;
+                nextRecentStyle = (nextRecentStyle + 1) % RECENT_STYLES;
+            }
+        }
+        return style;
+    }
+
+    /**
+     * Applies the parameters of an SGR sequence to the current style.
+     */
+    private void applySgr(int count) {
+        for (int index = 0; index < count; index++) {
+            int parameter = parameters[index];
+            int subEnd = index + 1; //End of the sub-parameters following this parameter
+            while (subEnd < count && subParameters[subEnd]) {
+                subEnd++;
+            }
+            if (subEnd > index + 1 && (parameter == 4 || parameter == 38 || parameter == 48)) {
+                applySubParameters(parameter, index + 1, subEnd);
+            } else if (parameter == 0) {
+                foreground = null;
+                background = null;
+                modifiers.clear();
+            } else if (parameter == 1) {
+                modifiers.add(SGR.BOLD);
+            } else if (parameter == 3) {
+                modifiers.add(SGR.ITALIC);
+            } else if (parameter == 4) {
+                modifiers.add(SGR.UNDERLINE);
+            } else if (parameter == 5) {
+                modifiers.add(SGR.BLINK);
+            } else if (parameter == 7) {
+                modifiers.add(SGR.REVERSE);
+            } else if (parameter == 9) {
+                modifiers.add(SGR.CROSSED_OUT);
+            } else if (parameter == 21 || parameter == 22) {
+                modifiers.remove(SGR.BOLD);
+            } else if (parameter == 23) {
+                modifiers.remove(SGR.ITALIC);
+            } else if (parameter == 24) {
+                modifiers.remove(SGR.UNDERLINE);
+            } else if (parameter == 25) {
+                modifiers.remove(SGR.BLINK);
+            } else if (parameter == 27) {
+                modifiers.remove(SGR.REVERSE);
+            } else if (parameter == 29) {
+                modifiers.remove(SGR.CROSSED_OUT);
+            } else if (parameter >= 30 && parameter <= 37) {
+                foreground = TextColor.ANSI.values()[parameter - 30];
+            } else if (parameter == 38 || parameter == 48) {
+                // Extended colors take up the following parameters
+                TextColor color = null;
+                if (index + 2 < count && parameters[index + 1] == 5) {
+                    color = new TextColor.Indexed(Math.min(parameters[index + 2], 255));
+                    index += 2;
+                } else if (index + 4 < count && parameters[index + 1] == 2) {
+                    color = new TextColor.RGB(Math.min(parameters[index + 2], 255),
+                            Math.min(parameters[index + 3], 255), Math.min(parameters[index + 4], 255));
+                    index += 4;
+                }
+                if (parameter == 38) {
+                    foreground = color;
+                } else {
+                    background = color;
+                }
+            } else if (parameter == 39) {
+                foreground = null;
+            } else if (parameter >= 40 && parameter <= 47) {
+                background = TextColor.ANSI.values()[parameter - 40];
+            } else if (parameter == 49) {
+                background = null;
+            } else if (parameter >= 90 && parameter <= 97) {
+                foreground = new TextColor.Indexed(parameter - 90 + 8);
+            } else if (parameter >= 100 && parameter <= 107) {
+                background = new TextColor.Indexed(parameter - 100 + 8);
+            }
+            index = Math.max(index, subEnd - 1); //Sub-parameters of unknown codes are skipped
+        }
+        style = null;
+    }
+
+    /**
+     * Applies an extended color or underline parameter followed by sub-parameters separated by colons,
+     * like {@code 38:2::R:G:B} or {@code 4:3}.
+     *
+     * @param parameter the parameter in front of the sub-parameters, 4, 38 or 48
+     * @param start     the index of the first sub-parameter
+     * @param end       the index behind the last sub-parameter
+     */
+    private void applySubParameters(int parameter, int start, int end) {
+        int count = end - start;
+        if (parameter == 38 || parameter == 48) {
+            TextColor color = null;
+            if (parameters[start] == 5 && count >= 2) {
+                color = new TextColor.Indexed(Math.min(parameters[start + 1], 255));
+            } else if (parameters[start] == 2 && count >= 4) {
+                // The color space id in front of the components is optional and usually left empty
+                int components = count >= 5 ? start + 2 : start + 1;
+                color = new TextColor.RGB(Math.min(parameters[components], 255),
+                        Math.min(parameters[components + 1], 255), Math.min(parameters[components + 2], 255));
+            }
+            if (parameter == 38) {
+                foreground = color;
+            } else {
+                background = color;
+            }
+        } else if (parameters[start] == 0) {
+            modifiers.remove(SGR.UNDERLINE);
+        } else {
+            modifiers.add(SGR.UNDERLINE); //Underline styles like curly underlines are shown as plain underlines
+        }
+    }
+}
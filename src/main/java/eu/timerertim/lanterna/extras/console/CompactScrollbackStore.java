@@ -0,0 +1,190 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A {@link ScrollbackStore} packing its lines into large byte chunks.
+ * <p>
+ * Instead of keeping a {@code String} per line, the characters of all lines are written
+ * one after another into chunks of {@value #CHUNK_SIZE} bytes. Lines only consisting of
+ * Latin-1 characters take up one byte per character, every other line two bytes.
+ * The lines are located using primitive arrays, so the amount of objects on the heap stays
+ * the same no matter how many lines are stored. {@code String}s are only created when a line
+ * is actually requested, which typically only happens for lines visible on the console.
+ */
+class CompactScrollbackStore implements ScrollbackStore {
+    private static final int CHUNK_SIZE = 1 << 20; //Lines longer than this get a chunk of their own
+    private static final int INDEX_CAPACITY = 1024;
+    private static final long UTF16_FLAG = 1L << 63; //Marks lines which are encoded using two bytes per char
+    private static final long OFFSET_MASK = 0xFFFFFFFFL;
+
+    // Storage of the line characters
+    private RingBuffer<byte[]> chunks;
+    private long firstChunk; //Sequence number of the first chunk in chunks
+    private int writePosition; //Position inside the last chunk the next line is written to
+    private long chunkMemory;
+
+    // Index of the lines
+    private long[] locations; //Sequence number of the chunk in the upper, offset inside of it in the lower 32 bits
+    private int[] lengths; //Amount of characters of the line
+    private int head;
+    private int size;
+
+    CompactScrollbackStore() {
+        this.chunks = new RingBuffer<>();
+        this.locations = new long[INDEX_CAPACITY];
+        this.lengths = new int[INDEX_CAPACITY];
+        clear();
+    }
+
+    @Override
+    public void add(String line) {
+        boolean latin1 = isLatin1(line);
+        int bytes = latin1 ? line.length() : 2 * line.length();
+        byte[] chunk = reserve(bytes);
+        long location = (firstChunk + chunks.size() - 1) << 32 | writePosition;
+
+        // Encode the line into the chunk
+        if (latin1) {
+            for (int index = 0; index < line.length(); index++) {
+                chunk[writePosition++] = (byte) line.charAt(index);
+            }
+        } else {
+            for (int index = 0; index < line.length(); index++) {
+                char c = line.charAt(index);
+                chunk[writePosition++] = (byte) (c >> 8);
+                chunk[writePosition++] = (byte) c;
+            }
+            location |= UTF16_FLAG;
+        }
+
+        // Index the line
+        if (size == locations.length) {
+            growIndex();
+        }
+        int slot = physicalIndex(size++);
+        locations[slot] = location;
+        lengths[slot] = line.length();
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        int slot = physicalIndex(index);
+        long location = locations[slot];
+        byte[] chunk = chunks.get((int) (((location & ~UTF16_FLAG) >>> 32) - firstChunk));
+        int offset = (int) (location & OFFSET_MASK);
+        int length = lengths[slot];
+
+        // Decode the line
+        if ((location & UTF16_FLAG) == 0) {
+            return new String(chunk, offset, length, StandardCharsets.ISO_8859_1);
+        } else {
+            char[] chars = new char[length];
+            for (int charIndex = 0; charIndex < length; charIndex++, offset += 2) {
+                chars[charIndex] = (char) ((chunk[offset] & 0xFF) << 8 | (chunk[offset + 1] & 0xFF));
+            }
+            return new String(chars);
+        }
+    }
+
+    @Override
+    public void removeFirst() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("Index: 0, Size: 0");
+        }
+        head = (head + 1) % locations.length;
+        size--;
+
+        // Release chunks which do not contain any lines anymore. Once empty, the last chunk is released as well
+        // instead of being written again from its start, as snapshots might still read the lines in it
+        long usedChunk = size > 0 ? (locations[head] & ~UTF16_FLAG) >>> 32 : firstChunk + chunks.size();
+        while (firstChunk < usedChunk) {
+            chunkMemory -= chunks.removeFirst().length;
+            firstChunk++;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        chunks.clear();
+        firstChunk = 0;
+        writePosition = 0;
+        chunkMemory = 0;
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the index is copied, the chunks are shared as already written
+     * parts of them never change.
+     */
+    @Override
+    public ScrollbackStore snapshot() {
+        CompactScrollbackStore snapshot = new CompactScrollbackStore();
+        snapshot.chunks = new RingBuffer<>(chunks);
+        snapshot.firstChunk = firstChunk;
+        snapshot.writePosition = writePosition;
+        snapshot.chunkMemory = chunkMemory;
+        snapshot.locations = Arrays.copyOf(locations, locations.length);
+        snapshot.lengths = Arrays.copyOf(lengths, lengths.length);
+        snapshot.head = head;
+        snapshot.size = size;
+        return snapshot;
+    }
+
+    @Override
+    public long getMemoryUsage() {
+        return chunkMemory + 12L * locations.length;
+    }
+
+    /**
+     * Returns a chunk with at least the given amount of bytes available at the {@code writePosition}.
+     */
+    private byte[] reserve(int bytes) {
+        if (chunks.isEmpty() || writePosition + bytes > chunks.getLast().length) {
+            byte[] chunk = new byte[Math.max(CHUNK_SIZE, bytes)];
+            chunks.add(chunk);
+            chunkMemory += chunk.length;
+            writePosition = 0;
+        }
+        return chunks.getLast();
+    }
+
+    private int physicalIndex(int index) {
+        int physical = head + index;
+        return physical < locations.length ? physical : physical - locations.length;
+    }
+
+    private void growIndex() {
+        long[] grownLocations = new long[locations.length * 2];
+        int[] grownLengths = new int[lengths.length * 2];
+        for (int index = 0; index < size; index++) {
+            grownLocations[index] = locations[physicalIndex(index)];
+            grownLengths[index] = lengths[physicalIndex(index)];
+        }
+        locations = grownLocations;
+        lengths = grownLengths;
+        head = 0;
+    }
+
+    static boolean isLatin1(String line) {
+        for (int index = 0; index < line.length(); index++) {
+            if (line.charAt(index) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
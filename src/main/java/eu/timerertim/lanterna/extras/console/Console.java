@@ -6,6 +6,14 @@ import eu.timerertim.lanterna.extras.utils.WrappingMode;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
 public interface Console extends Closeable {
     /**
@@ -32,6 +40,25 @@ public interface Console extends Closeable {
      */
     void println(String line);
 
+    /**
+     * Prints the given text in the given style, otherwise behaving exactly like {@link Console#print(String)}.
+     * <p>
+     * Colors of the style which are null are replaced by the text and background color of the console.
+     * Changing the style between prints does not cause any other text to be redrawn.
+     *
+     * @param text  the text to print
+     * @param style the style of the text, null for {@link TextStyle#DEFAULT}
+     */
+    void print(String text, TextStyle style);
+
+    /**
+     * Prints the given line in the given style, otherwise behaving exactly like {@link Console#println(String)}.
+     *
+     * @param line  the line to print
+     * @param style the style of the line, null for {@link TextStyle#DEFAULT}
+     */
+    void println(String line, TextStyle style);
+
     /**
      * Lets the user input a String and retrieve it afterwards.
      * <p>
@@ -44,10 +71,142 @@ public interface Console extends Closeable {
      * This method is always "autoUpdating", because the user needs constant feedback
      * regardless of {@code autoUpdate} being true or not.
      *
-     * @return the user given String
+     * @return the user given String or null if the input was closed
      */
     String readLine();
 
+    /**
+     * Lets the user input a String without blocking the calling thread.
+     * <p>
+     * Works like {@link Console#readLine()}, but returns immediately. The input is edited on the
+     * console's own thread, while the returned future is completed with the input once the user
+     * confirms it by pressing the ENTER key. Text printed in the meantime is displayed above the input line
+     * without affecting it. Cancelling the future stops reading and clears the input line.
+     * <p>
+     * Only one line can be read at a time.
+     *
+     * @return the future completed with the user given String or null if the console was closed
+     * @throws IllegalStateException if a line is already being read
+     */
+    CompletableFuture<String> readLineAsync();
+
+    /**
+     * Creates a new {@code Writer} printing to this console, which is useful for piping the output of other processes.
+     * <p>
+     * ANSI escape sequences are interpreted: Colors and modifiers set by SGR sequences are applied to the
+     * following text like {@link Console#print(String, TextStyle)} does, while other sequences like cursor
+     * movements are skipped. Every writer keeps its own state, so escape sequences can be split across writes.
+     * The text of one write is added to the console at once, so there is no need to split it into lines.
+     *
+     * @return the new writer
+     */
+    Writer newWriter();
+
+    /**
+     * Creates a new {@code OutputStream} printing to this console.
+     * <p>
+     * The bytes are decoded using the given charset and then handled like the text written to
+     * {@link Console#newWriter()}. Characters split across writes are decoded correctly.
+     *
+     * @param charset the charset used for decoding the written bytes
+     * @return the new stream
+     */
+    OutputStream newOutputStream(Charset charset);
+
+    /**
+     * Creates a new auto flushing {@code PrintStream} printing to this console, which can be used to redirect
+     * {@code System.out} or {@code System.err} to it. Works like {@link Console#newOutputStream(Charset)}.
+     *
+     * @return the new print stream
+     */
+    PrintStream newPrintStream();
+
+    /**
+     * Shows the given file read-only in place of the content of this console, until the returned view is closed.
+     * <p>
+     * The file is memory mapped and only the visible lines are read, so opening even huge files is instant and
+     * takes up little memory. The lines are wrapped like the content. Scrolling is done using the returned view.
+     *
+     * @param file    the file to view
+     * @param charset the charset used for decoding the file
+     * @return the view of the file
+     * @throws IOException the {@code Exception} thrown if the file can not be opened
+     */
+    FileView viewFile(Path file, Charset charset) throws IOException;
+
+    /**
+     * Writes the history of this console including the styles of its text and the line still being printed to
+     * into the given snapshot file, replacing it. Text still being animated is finished first.
+     * <p>
+     * The snapshot can be restored using {@link Console#restoreSnapshot(Path)}, for example when the
+     * application is started again. The file is only replaced once it was written completely.
+     *
+     * @param file the snapshot file to write
+     * @throws IOException the {@code Exception} thrown if the file can not be written
+     */
+    void saveSnapshot(Path file) throws IOException;
+
+    /**
+     * Replaces the history of this console with the one saved in the given snapshot file
+     * using {@link Console#saveSnapshot(Path)}, like after clearing this console.
+     * <p>
+     * The file is memory mapped and the restored lines are only read when they are needed, so even restoring
+     * millions of lines is instant. The rows of the lines which are not visible are counted in the background,
+     * as after a resize. The file must not be modified while this console shows its lines, but it can be
+     * replaced by saving a new snapshot to it.
+     *
+     * @param file the snapshot file to read
+     * @throws IOException the {@code Exception} thrown if the file can not be read or is not a snapshot file
+     */
+    void restoreSnapshot(Path file) throws IOException;
+
+    /**
+     * Searches the history of this console for the given text and highlights every occurrence of it
+     * until the returned search is closed. The matches are moved to using the returned search.
+     * <p>
+     * The history is searched in parallel, using the index if enabled, see {@link Console#setSearchIndexed(boolean)}.
+     * Only one search is highlighted at a time.
+     *
+     * @param text the text to search for, not empty
+     * @return the search
+     */
+    Search search(String text);
+
+    /**
+     * Searches the history of this console for matches of the given regular expression.
+     * Works like {@link Console#search(String)}. Empty matches are ignored.
+     *
+     * @param pattern the pattern to search for
+     * @return the search
+     */
+    Search search(Pattern pattern);
+
+    /**
+     * Prints everything appended to the given file from now on, like {@code tail -f} does, until the returned
+     * follower is closed. If the file is truncated, it is followed from its start again.
+     * <p>
+     * The file is read in the background and its bytes are handled like the ones written to
+     * {@link Console#newOutputStream(Charset)}. While the file does not grow, the follower waits for the
+     * file system to report a change instead of reading the file over and over.
+     *
+     * @param file    the file to follow
+     * @param charset the charset used for decoding the file
+     * @return the follower, closed when this console is closed
+     * @throws IOException the {@code Exception} thrown if the file can not be opened
+     */
+    Follower follow(Path file, Charset charset) throws IOException;
+
+    /**
+     * Prints everything read from the given channel in the background, for example the output of a process or
+     * a socket, until the channel reaches its end or the returned follower is closed. Works like
+     * {@link Console#follow(Path, Charset)}.
+     *
+     * @param channel the channel to read from, closed together with the follower
+     * @param charset the charset used for decoding the bytes
+     * @return the follower, closed when this console is closed
+     */
+    Follower follow(ReadableByteChannel channel, Charset charset);
+
     /**
      * Updates this Console Object by making <b>changes</b> visible for the user.
      * <p>
@@ -115,11 +274,33 @@ public interface Console extends Closeable {
      * handled in any way. Only the StackTrace is printed to {@code System.out}. Depending on your
      * needs you might not want this. It should be noted, that under normal circumstances no Exception
      * will occur.
+     * <p>
+     * Updates are coalesced by a dedicated render thread, which means that any amount of changes
+     * in between two frames results in only one update. The amount of frames per second can be
+     * configured using {@link Console#setFrameRate(int)}.
      *
      * @param autoUpdate tne autoUpdate
      */
     void setAutoUpdate(boolean autoUpdate);
 
+    /**
+     * Gets the frame rate used for autoUpdating.
+     *
+     * @return the maximum amount of updates per second
+     */
+    int getFrameRate();
+
+    /**
+     * Sets the maximum amount of updates per second issued while {@code autoUpdate} is enabled.
+     * <p>
+     * Changes made in between two frames are made visible together, so even huge amounts
+     * of printed lines only cost a bounded amount of updates. The default value is 60.
+     *
+     * @param frameRate the maximum amount of updates per second, has to be positive
+     * @throws IllegalArgumentException if the frame rate is not positive
+     */
+    void setFrameRate(int frameRate);
+
     /**
      * Returns the state of text animation.
      * <p>
@@ -137,10 +318,31 @@ public interface Console extends Closeable {
      * Takes a {@link KeyType} that the user will use to skip text animations. If null is passed, the
      * feature will be deactivated.
      *
+     * While text is animated, printed text is typed out character by character instead of appearing at once.
+     * Printing does not block, the text is queued and typed out in the background in the order it was printed.
+     * Text written to the streams of this console is not animated, it finishes the animation first.
+     * Deactivating the animation finishes it as well.
+     *
      * @param skipTextAnimationKey null deactivates the animation for text, not null is the {@code KeyType} users have to press to skip animation
      */
     void setSkipTextAnimationKey(KeyType skipTextAnimationKey);
 
+    /**
+     * Gets the key used for skipping text animation.
+     *
+     * @return the {@code KeyType} users have to press to skip animation or null if text is not animated
+     */
+    KeyType getSkipTextAnimationKey();
+
+    /**
+     * Finishes the text animation instantly, displaying all text still waiting to be typed out.
+     * <p>
+     * This is what pressing the skip key does.
+     *
+     * @return true if any text was still being animated
+     */
+    boolean skipTextAnimation();
+
     /**
      * Gets the WrappingMode.
      *
@@ -176,7 +378,7 @@ public interface Console extends Closeable {
     /**
      * Sets the foreground color for the whole console.
      * <p>
-     * The color is applied to everything inside the console.
+     * The color is applied to everything inside the console, except for text printed in a style with its own foreground color.
      *
      * @param textColor the foreground color
      */
@@ -192,7 +394,7 @@ public interface Console extends Closeable {
     /**
      * Sets the background color for the whole console.
      * <p>
-     * The color is applied to everything inside the console.
+     * The color is applied to everything inside the console, except for text printed in a style with its own background color.
      *
      * @param backgroundColor the background color
      */
@@ -239,6 +441,176 @@ public interface Console extends Closeable {
      */
     void setAutoScrolling(boolean autoScrolling);
 
+    /**
+     * Returns the amount of rows the content is shown in, which excludes the row of the input line.
+     *
+     * @return the amount of rows
+     */
+    int getVisibleRows();
+
+    /**
+     * Scrolls the history to show the given line at the top of this console, or as near to it as possible.
+     * <p>
+     * While the bottom of the history is not shown, automatic scrolling is paused, so printed text does not
+     * move the history away from the user. It continues once the bottom is shown again. Jumping to any line
+     * costs O(log n) for a history of n lines, plus drawing the visible rows.
+     * If a file is viewed (see {@link Console#viewFile(Path, Charset)}), the file is scrolled instead.
+     *
+     * @param line the index of the line, starting at 0 with the oldest line kept
+     */
+    void scrollTo(int line);
+
+    /**
+     * Scrolls the history by the given amount of wrapped rows. Works like {@link Console#scrollTo(int)}.
+     * The keys PageUp and PageDown scroll by {@link Console#getVisibleRows()}, while the mouse wheel
+     * scrolls by a few rows if the terminal reports mouse events.
+     *
+     * @param rows the amount of rows, negative to scroll up
+     */
+    void scrollBy(int rows);
+
+    /**
+     * Scrolls to the bottom of the history, which lets automatic scrolling continue.
+     * The key End does the same, while the key Home scrolls to the top.
+     */
+    void scrollToBottom();
+
+    /**
+     * Gets the scrollback limit.
+     *
+     * @return the maximum amount of lines kept, 0 if unlimited
+     */
+    int getScrollbackLimit();
+
+    /**
+     * Sets the maximum amount of lines this console keeps in its history.
+     * <p>
+     * If the limit is exceeded, the oldest lines are removed together with their
+     * wrapped rows. The scrolling position is adjusted accordingly, so the visible content
+     * stays the same unless it was removed itself. Lines exceeding a newly set limit are
+     * removed immediately.
+     * <p>
+     * By default there is no limit, which means that a long running console
+     * keeps growing in memory. It is recommended to set a limit in such cases.
+     *
+     * @param lines the maximum amount of lines kept, 0 means unlimited
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    void setScrollbackLimit(int lines);
+
+    /**
+     * Returns the estimated amount of memory in bytes currently used
+     * by the history of this console.
+     *
+     * @return the estimated memory usage in bytes
+     */
+    long getScrollbackMemoryUsage();
+
+    /**
+     * Returns whether the history of this console is stored compactly.
+     *
+     * @return true if the compact scrollback storage is used
+     */
+    boolean isCompactScrollback();
+
+    /**
+     * Switches between the default and the compact storage of this console's history.
+     * <p>
+     * The default storage keeps every line as its own {@code String}. The compact storage packs
+     * the characters of all lines into large chunks of memory and only creates {@code String}s
+     * for lines which are actually displayed. This greatly reduces memory usage and garbage collection
+     * pressure for histories consisting of millions of lines, at the cost of slightly slower access
+     * to lines which are not visible. Existing lines are moved into the new storage.
+     *
+     * @param compact whether or not to store the history compactly
+     */
+    void setCompactScrollback(boolean compact);
+
+    /**
+     * Returns whether the history of this console is indexed for searching.
+     *
+     * @return true if the history is indexed
+     */
+    boolean isSearchIndexed();
+
+    /**
+     * Enables or disables the index used for searching the history of this console.
+     * <p>
+     * The index keeps a small filter of every block of lines, which lets searches for a text skip the blocks
+     * not containing it. This makes repeated searches of large histories a lot faster, while every printed line
+     * takes slightly longer and the index takes up about 8 bytes per line. Searches using a {@code Pattern}
+     * do not benefit from it. Enabling the index indexes the existing history.
+     *
+     * @param indexed whether or not to index the history
+     */
+    void setSearchIndexed(boolean indexed);
+
+    /**
+     * Returns whether this console accepts output from multiple threads without blocking them.
+     *
+     * @return true if the concurrent mode is enabled
+     */
+    boolean isConcurrent();
+
+    /**
+     * Activates or deactivates the concurrent mode.
+     * <p>
+     * In concurrent mode {@link Console#print(String)} and {@link Console#println(String)} can be called
+     * by any amount of threads at the same time. The text is only added to a lock-free queue, so printing
+     * never blocks the calling thread. A single background thread takes the text out of that queue and
+     * applies it to the content of this console, multiple texts at once if they were printed in between two frames.
+     * <p>
+     * The output of each thread stays in the order it was printed. Lines printed using {@link Console#println(String)}
+     * are never mixed with the output of other threads, while the output of multiple calls to {@link Console#print(String)}
+     * might be. Printed text becomes part of the content on the next frame, or if this console
+     * is updated, cleared or rewrapped. Deactivating the concurrent mode applies all remaining text.
+     *
+     * @param concurrent whether or not to enable the concurrent mode
+     */
+    void setConcurrent(boolean concurrent);
+
+    /**
+     * Returns whether this console collects metrics into the object returned by {@link Console#getMetrics()}.
+     *
+     * @return true if metrics are collected
+     */
+    boolean isMetricsEnabled();
+
+    /**
+     * Activates or deactivates collecting metrics.
+     * <p>
+     * While activated, this console measures print operations, wrapping, refreshes and the latency of echoing user
+     * input. The results are collected into the {@link ConsoleMetrics} returned by {@link Console#getMetrics()},
+     * which can also be registered as MXBean for JMX. Metrics are deactivated by default. Measuring only
+     * takes place while metrics are activated or another {@link ConsoleMetricsListener} is registered,
+     * so it has nearly no overhead otherwise.
+     *
+     * @param enabled whether or not to collect metrics
+     */
+    void setMetricsEnabled(boolean enabled);
+
+    /**
+     * Returns the metrics collected by this console.
+     * The values only change while metrics are enabled using {@link Console#setMetricsEnabled(boolean)}.
+     *
+     * @return the metrics of this console
+     */
+    ConsoleMetrics getMetrics();
+
+    /**
+     * Registers a listener receiving every measurement of this console.
+     *
+     * @param listener the listener to add
+     */
+    void addMetricsListener(ConsoleMetricsListener listener);
+
+    /**
+     * Removes a listener previously added using {@link Console#addMetricsListener(ConsoleMetricsListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    void removeMetricsListener(ConsoleMetricsListener listener);
+
     /**
      * Gets the state of automatic resizing.
      *
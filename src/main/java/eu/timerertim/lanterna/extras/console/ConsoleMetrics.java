@@ -0,0 +1,210 @@
+package eu.timerertim.lanterna.extras.console;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the measurements of a console into counters and histograms.
+ * <p>
+ * Every console owns one instance, which is obtained using {@link Console#getMetrics()}. It only receives
+ * measurements while enabled using {@link Console#setMetricsEnabled(boolean)}. The values can be read directly
+ * or through JMX after calling {@link ConsoleMetrics#registerMBean(String)}.
+ */
+public class ConsoleMetrics implements ConsoleMetricsListener, ConsoleMetricsMXBean {
+    private static final long RATE_WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    private final AbstractConsole console;
+
+    // Prints
+    private final AtomicLong printCount;
+    private long windowStart; //Start of the second the prints are currently counted for
+    private long windowPrints;
+    private double printsPerSecond;
+
+    // Rendering
+    private final LatencyHistogram refreshTime;
+    private final LatencyHistogram frameLatency;
+    private final LatencyHistogram wrapTime;
+    private final LatencyHistogram inputEchoLatency;
+    private final AtomicLong redrawnRows;
+    private final AtomicLong maxRedrawnRows;
+
+    ConsoleMetrics(AbstractConsole console) {
+        this.console = console;
+        this.printCount = new AtomicLong();
+        this.refreshTime = new LatencyHistogram();
+        this.frameLatency = new LatencyHistogram();
+        this.wrapTime = new LatencyHistogram();
+        this.inputEchoLatency = new LatencyHistogram();
+        this.redrawnRows = new AtomicLong();
+        this.maxRedrawnRows = new AtomicLong();
+        this.windowStart = System.nanoTime();
+    }
+
+    /**
+     * Registers these metrics at the platform MBean server.
+     *
+     * @param name the name identifying the console, used as name key of the {@code ObjectName}
+     * @return the name the metrics were registered with, needed for unregistering them
+     * @throws JMException if the metrics could not be registered, e.g. if the name is already in use
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("eu.timerertim.lanterna.extras:type=Console,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    // Listener
+
+    @Override
+    public void onPrint(int prints, long wrapTime) {
+        printCount.addAndGet(prints);
+        this.wrapTime.record(wrapTime);
+        synchronized (this) {
+            rollWindow(System.nanoTime());
+            windowPrints += prints;
+        }
+    }
+
+    @Override
+    public void onReflow(long wrapTime) {
+        this.wrapTime.record(wrapTime);
+    }
+
+    @Override
+    public void onRefresh(long refreshTime, long frameLatency, int redrawnRows) {
+        this.refreshTime.record(refreshTime);
+        this.frameLatency.record(frameLatency);
+        this.redrawnRows.addAndGet(redrawnRows);
+        maxRedrawnRows.accumulateAndGet(redrawnRows, Math::max);
+    }
+
+    @Override
+    public void onInputEcho(long latency) {
+        inputEchoLatency.record(latency);
+    }
+
+    // MXBean
+
+    @Override
+    public long getPrintCount() {
+        return printCount.get();
+    }
+
+    @Override
+    public synchronized double getPrintsPerSecond() {
+        rollWindow(System.nanoTime());
+        return printsPerSecond;
+    }
+
+    @Override
+    public long getRefreshCount() {
+        return refreshTime.getCount();
+    }
+
+    @Override
+    public long[] getHistogramBounds() {
+        return LatencyHistogram.getBounds();
+    }
+
+    @Override
+    public long[] getRefreshTimeHistogram() {
+        return refreshTime.getCounts();
+    }
+
+    @Override
+    public double getMeanRefreshTime() {
+        return refreshTime.getMean();
+    }
+
+    @Override
+    public long[] getFrameLatencyHistogram() {
+        return frameLatency.getCounts();
+    }
+
+    @Override
+    public double getMeanFrameLatency() {
+        return frameLatency.getMean();
+    }
+
+    @Override
+    public long getMaxFrameLatency() {
+        return frameLatency.getMax();
+    }
+
+    @Override
+    public double getMeanRedrawnRows() {
+        long refreshes = refreshTime.getCount();
+        return refreshes == 0 ? 0 : (double) redrawnRows.get() / refreshes;
+    }
+
+    @Override
+    public long getMaxRedrawnRows() {
+        return maxRedrawnRows.get();
+    }
+
+    @Override
+    public long[] getWrapTimeHistogram() {
+        return wrapTime.getCounts();
+    }
+
+    @Override
+    public long getTotalWrapTime() {
+        return wrapTime.getSum();
+    }
+
+    @Override
+    public long[] getInputEchoLatencyHistogram() {
+        return inputEchoLatency.getCounts();
+    }
+
+    @Override
+    public double getMeanInputEchoLatency() {
+        return inputEchoLatency.getMean();
+    }
+
+    // The content is read while holding the lock of the console, as these getters are called by JMX and listener threads
+    @Override
+    public long getScrollbackLines() {
+        synchronized (console) {
+            return console.contentManager.getLineCount();
+        }
+    }
+
+    @Override
+    public long getScrollbackBytes() {
+        synchronized (console) {
+            return console.getScrollbackMemoryUsage();
+        }
+    }
+
+    @Override
+    public synchronized void reset() {
+        printCount.set(0);
+        windowStart = System.nanoTime();
+        windowPrints = 0;
+        printsPerSecond = 0;
+        refreshTime.reset();
+        frameLatency.reset();
+        wrapTime.reset();
+        inputEchoLatency.reset();
+        redrawnRows.set(0);
+        maxRedrawnRows.set(0);
+    }
+
+    /**
+     * Completes the current second if it is over, starting a new one.
+     */
+    private void rollWindow(long now) {
+        long elapsed = now - windowStart;
+        if (elapsed >= RATE_WINDOW) {
+            // No prints during a whole second in between means the rate dropped to zero
+            printsPerSecond = elapsed < 2 * RATE_WINDOW ? windowPrints * (double) RATE_WINDOW / elapsed : 0;
+            windowStart = now;
+            windowPrints = 0;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package eu.timerertim.lanterna.extras.console;
+
+/**
+ * Receives measurements about the work done by a {@link Console}.
+ * <p>
+ * Listeners are registered using {@link Console#addMetricsListener(ConsoleMetricsListener)}. The console only
+ * measures anything while at least one listener is registered. All methods are called while the console is locked,
+ * so they have to return quickly. Every method does nothing by default, so only the needed ones have to be implemented.
+ * All times are given in nanoseconds.
+ */
+public interface ConsoleMetricsListener {
+    /**
+     * Called after printed text was added to the content and laid out for display.
+     *
+     * @param prints   the amount of print operations applied together, more than one in concurrent mode
+     * @param wrapTime the time spent adding the text and wrapping the visible content
+     */
+    default void onPrint(int prints, long wrapTime) {
+    }
+
+    /**
+     * Called after the content was rewrapped because the wrapping or the size of the console changed.
+     *
+     * @param wrapTime the time spent rewrapping
+     */
+    default void onReflow(long wrapTime) {
+    }
+
+    /**
+     * Called after the console was refreshed, which means changes were sent to the terminal.
+     *
+     * @param refreshTime  the time spent refreshing
+     * @param frameLatency the time from the first change shown by this refresh until the end of the refresh
+     * @param redrawnRows  the amount of rows drawn since the previous refresh
+     */
+    default void onRefresh(long refreshTime, long frameLatency, int redrawnRows) {
+    }
+
+    /**
+     * Called after keys typed by the user were displayed on the input line.
+     *
+     * @param latency the time from the input listener receiving the first of the keys until they were displayed
+     */
+    default void onInputEcho(long latency) {
+    }
+}
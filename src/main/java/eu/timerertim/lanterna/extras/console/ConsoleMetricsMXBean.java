@@ -0,0 +1,54 @@
+package eu.timerertim.lanterna.extras.console;
+
+/**
+ * Management interface of {@link ConsoleMetrics}, which makes the metrics of a console available through JMX.
+ * <p>
+ * Times are given in microseconds. Histograms are arrays of counts, the bucket at an index counting all
+ * values below the bound at the same index of {@link ConsoleMetricsMXBean#getHistogramBounds()} and not
+ * counted by a previous bucket.
+ */
+public interface ConsoleMetricsMXBean {
+    long getPrintCount();
+
+    /**
+     * Returns the rate of print operations, measured over the last completed second.
+     *
+     * @return the print operations per second
+     */
+    double getPrintsPerSecond();
+
+    long getRefreshCount();
+
+    long[] getHistogramBounds();
+
+    long[] getRefreshTimeHistogram();
+
+    double getMeanRefreshTime();
+
+    long[] getFrameLatencyHistogram();
+
+    double getMeanFrameLatency();
+
+    long getMaxFrameLatency();
+
+    double getMeanRedrawnRows();
+
+    long getMaxRedrawnRows();
+
+    long[] getWrapTimeHistogram();
+
+    long getTotalWrapTime();
+
+    long[] getInputEchoLatencyHistogram();
+
+    double getMeanInputEchoLatency();
+
+    long getScrollbackLines();
+
+    long getScrollbackBytes();
+
+    /**
+     * Sets all measured values back to zero.
+     */
+    void reset();
+}
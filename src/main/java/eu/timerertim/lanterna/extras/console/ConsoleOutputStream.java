@@ -0,0 +1,127 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * {@code OutputStream} printing to a {@link ScreenConsole}, decoding the bytes and interpreting ANSI escape sequences.
+ * <p>
+ * The bytes are decoded incrementally by one reused decoder into a reused buffer, so characters split across
+ * writes are decoded correctly and no objects are created per write. Malformed input is replaced.
+ * Written arrays are added to the content of the console immediately, in batches of up to
+ * {@value #BUFFER_SIZE} characters. Single bytes are collected until a newline is written or the stream is flushed.
+ */
+class ConsoleOutputStream extends OutputStream {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ScreenConsole console;
+    private final AnsiParser parser;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes; //Written bytes which were not decoded yet
+    private final CharBuffer chars; //Decoded characters which were not parsed yet
+    private boolean closed;
+
+    ConsoleOutputStream(ScreenConsole console, Charset charset) {
+        this.console = console;
+        this.parser = new AnsiParser();
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        this.chars = CharBuffer.allocate(BUFFER_SIZE);
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        ensureOpen();
+        bytes.put((byte) b);
+        if (b == '\n' || !bytes.hasRemaining()) {
+            decode(false);
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException("Offset: " + off + ", Length: " + len + ", Size: " + b.length);
+        }
+
+        do {
+            int length = Math.min(len, bytes.remaining());
+            bytes.put(b, off, length);
+            off += length;
+            len -= length;
+            decode(false);
+        } while (len > 0);
+    }
+
+    /**
+     * Decodes the remaining bytes of the given buffer without copying them into this stream first.
+     * Bytes of an incomplete character at the end are left in the buffer, so they have to be passed again
+     * together with the following bytes, like {@link ByteBuffer#compact()} allows to.
+     * Must not be mixed with the other write methods.
+     *
+     * @param source the buffer to decode
+     * @throws IOException if this stream is closed
+     */
+    synchronized void write(ByteBuffer source) throws IOException {
+        ensureOpen();
+        decode(source, false);
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        decode(false);
+    }
+
+    /**
+     * Decodes the remaining bytes, replacing incomplete characters, and closes the stream.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            decode(true);
+            decoder.flush(chars);
+            parseChars();
+            closed = true;
+        }
+    }
+
+    /**
+     * Decodes the written bytes and parses the result, keeping the bytes of incomplete characters.
+     */
+    private void decode(boolean endOfInput) {
+        bytes.flip();
+        decode(bytes, endOfInput);
+        bytes.compact();
+    }
+
+    private void decode(ByteBuffer source, boolean endOfInput) {
+        CoderResult result;
+        do {
+            result = decoder.decode(source, chars, endOfInput);
+            parseChars();
+        } while (result.isOverflow());
+    }
+
+    private void parseChars() {
+        if (chars.position() > 0) {
+            console.ingest(parser, chars.array(), 0, chars.position());
+            chars.clear();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * {@code Writer} printing to a {@link ScreenConsole}, interpreting ANSI escape sequences.
+ * <p>
+ * Every write is parsed and added to the content of the console as one batch, which is displayed once.
+ * Nothing is buffered, so flushing has no effect.
+ */
+class ConsoleWriter extends Writer {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ScreenConsole console;
+    private final AnsiParser parser;
+    private char[] buffer; //Reused for copying written Strings, created when needed
+    private boolean closed;
+
+    ConsoleWriter(ScreenConsole console) {
+        this.console = console;
+        this.parser = new AnsiParser();
+    }
+
+    @Override
+    public synchronized void write(char[] chars, int offset, int length) throws IOException {
+        ensureOpen();
+        console.ingest(parser, chars, offset, length);
+    }
+
+    @Override
+    public synchronized void write(String text, int offset, int length) throws IOException {
+        ensureOpen();
+        if (buffer == null) {
+            buffer = new char[BUFFER_SIZE];
+        }
+        for (int start = offset; start < offset + length; start += BUFFER_SIZE) {
+            int end = Math.min(start + BUFFER_SIZE, offset + length);
+            text.getChars(start, end, buffer, 0);
+            console.ingest(parser, buffer, 0, end - start);
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer closed");
+        }
+    }
+}
@@ -4,37 +4,103 @@ import com.googlecode.lanterna.TerminalSize;
 import eu.timerertim.lanterna.extras.utils.WrappingMode;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 class ContentManager {
     // Primary fields
-    private final TerminalSize size; //Size of the managed content display
-    private final String[] displayContent; //This are the lines that are actually shown on the console
-    private final List<String> content, wrappedContent; //This effectively are the lines users of this class want to use
+    private final RowIndex rowIndex; //Amount of wrapped rows of every line including the current one
+    private TerminalSize size; //Size of the managed content display
+    private String[] displayContent; //This are the lines that are actually shown on the console
+    private int[][] displayRuns; //Attribute runs of the rows of the displayContent, null for rows which are not styled
+    private BitSet dirtyRows; //Rows of the displayContent which changed since they were last drawn
+    private ScrollbackStore content; //This effectively are the completed lines users of this class want to use
+    private final OpenLine currentLine; //The last line, which is still being printed to
     private WrappingMode wrapping;
+    private int columns; //Width the content is wrapped to
+    private int scrollbackLimit; //Maximum amount of lines kept, 0 means unlimited
+    private final StyleTable styles;
+    private final Map<Long, int[]> lineRuns; //Attribute runs of the styled completed lines by their absolute number
+    private SearchIndex searchIndex; //Null if searches are not indexed
+    private Search search; //Search whose matches are highlighted, null if there is none
 
     // Helper fields
-    private int previousModifiedIndex;
+    private Map<Long, WrappedLine> visibleRows; //Wrapped rows of the completed lines shown by the displayContent
+    private int[] wrappedStarts; //Reused arrays receiving the row boundaries of styled lines
+    private int[] wrappedEnds;
+    private long firstLineNumber; //Absolute number of the first line in content, increases on eviction
+    private int evictedRows; //Amount of rows evicted since the last call of pollEvictedRows
+    private int reflowGeneration; //Increases whenever row counts calculated in the background become outdated
 
     ContentManager(TerminalSize size, WrappingMode wrapping) {
-        this.size = size;
-        this.content = new LinkedList<>();
-        this.wrappedContent = new ArrayList<>();
-        this.displayContent = new String[size.getRows() - 1];
+        this.content = new HeapScrollbackStore();
+        this.rowIndex = new RowIndex();
+        this.visibleRows = new HashMap<>();
+        this.styles = new StyleTable();
+        this.lineRuns = new HashMap<>();
+        this.wrappedStarts = new int[4];
+        this.wrappedEnds = new int[4];
         this.wrapping = wrapping;
-        this.previousModifiedIndex = 0;
+        this.columns = size.getColumns();
+        this.currentLine = new OpenLine(wrapping, columns);
+        this.reflowGeneration = 0;
+        resize(size);
+        this.scrollbackLimit = 0;
 
-        content.add("");
-        Arrays.fill(displayContent, null);
+        clear();
     }
 
+    /**
+     * Appends text to the last line.
+     * Only the last row of that line is rewrapped, so this costs O(k) for k appended characters.
+     *
+     * @param line the text to append
+     */
     void appendLine(String line) {
-        replaceLine(content.get(content.size() - 1) + line);
+        appendLine(line, null);
+    }
+
+    /**
+     * Appends styled text to the last line.
+     *
+     * @param line  the text to append
+     * @param style the style of the text, null for the default style
+     */
+    void appendLine(String line, TextStyle style) {
+        currentLine.append(line, styles.getId(style));
+        rowIndex.setLast(currentLine.getRowCount());
+    }
+
+    /**
+     * Appends a range of styled characters to the last line without creating a {@code String} of them.
+     *
+     * @param chars  the array containing the characters to append
+     * @param offset the index of the first character to append
+     * @param length the amount of characters to append
+     * @param style  the style of the text, null for the default style
+     */
+    void appendLine(char[] chars, int offset, int length, TextStyle style) {
+        currentLine.append(chars, offset, length, styles.getId(style));
+        rowIndex.setLast(currentLine.getRowCount());
     }
 
     void addLine(String line) {
-        previousModifiedIndex = wrappedContent.size();
-        content.add(line);
-        Collections.addAll(wrappedContent, wrapping.wrap(line, size.getColumns()));
+        int[] runs = currentLine.getRuns();
+        if (runs != null) {
+            lineRuns.put(firstLineNumber + content.size(), runs);
+        }
+        long lineNumber = firstLineNumber + content.size();
+        String text = currentLine.toString();
+        content.add(text);
+        if (searchIndex != null) {
+            searchIndex.add(lineNumber, text);
+        }
+        if (search != null) {
+            search.addLine(lineNumber, text);
+        }
+        rowIndex.add(0);
+        replaceLine(line);
+        trimScrollback();
     }
 
     /**
@@ -43,36 +109,216 @@ class ContentManager {
      * @param line the new line
      */
     void replaceLine(String line) {
-        wrappedContent.subList(previousModifiedIndex, wrappedContent.size()).clear();
-        content.remove(content.size() - 1);
-        content.add(line);
-        Collections.addAll(wrappedContent, wrapping.wrap(line, size.getColumns()));
+        currentLine.replace(line);
+        rowIndex.setLast(currentLine.getRowCount());
     }
 
     void clear() {
         content.clear();
-        content.add("");
-        wrappedContent.clear();
-        Arrays.fill(displayContent, null);
-        previousModifiedIndex = 0;
+        rowIndex.clear();
+        visibleRows.clear();
+        lineRuns.clear();
+        if (searchIndex != null) {
+            searchIndex.clear();
+        }
+        if (search != null) {
+            search.clear();
+        }
+        rowIndex.add(0);
+        replaceLine("");
+        styles.clear();
+        evictedRows = 0;
+        reflowGeneration++;
+        Arrays.fill(displayContent, ""); //Drawn as empty rows, so rows staying empty are not redrawn again
+        Arrays.fill(displayRuns, null);
+        markAllDirty();
+    }
+
+    /**
+     * Changes the size of the displayContent. The content itself is not rewrapped,
+     * which has to be done using {@link ContentManager#reflowVisible} if needed.
+     *
+     * @param size the new size of the managed content display
+     */
+    void resize(TerminalSize size) {
+        this.size = size;
+        this.displayContent = new String[Math.max(0, size.getRows() - 1)];
+        Arrays.fill(displayContent, "");
+        this.displayRuns = new int[displayContent.length][];
+        this.dirtyRows = new BitSet(displayContent.length);
+        markAllDirty();
     }
 
     /**
-     * Transfers the wrappedContent to the displayContent
+     * Rewraps the content using new columns and wrapping.
+     * <p>
+     * Only the lines which are about to be visible are rewrapped immediately, which are
+     * the lines starting at the given one and the lines at the bottom of the content.
+     * The row counts of every other line stay outdated until the result of
+     * {@link ContentManager#reflowRemaining()} is applied.
+     *
+     * @param columns          the width to wrap the content to
+     * @param wrapping         the wrapping to apply
+     * @param firstVisibleLine the index of the first line which is about to be visible
+     */
+    void reflowVisible(int columns, WrappingMode wrapping, int firstVisibleLine) {
+        this.columns = columns;
+        this.wrapping = wrapping;
+        visibleRows.clear();
+        reflowGeneration++;
+
+        // The current line is always the last one
+        currentLine.reflow(wrapping, columns);
+        rowIndex.setLast(currentLine.getRowCount());
+        int completedLines = content.size();
+        for (int line = Math.max(0, firstVisibleLine); line < Math.min(completedLines, firstVisibleLine + displayContent.length); line++) {
+            rowIndex.set(line, wrapping.countRows(content.get(line), columns));
+        }
+        for (int line = Math.max(0, completedLines - displayContent.length); line < completedLines; line++) {
+            rowIndex.set(line, wrapping.countRows(content.get(line), columns));
+        }
+    }
+
+    /**
+     * Recalculates the row counts of all completed lines in parallel in the background.
+     * <p>
+     * The returned future completes with the task applying the new row counts. That task has
+     * to be run by the thread owning this {@code ContentManager}. It has no effect if the content
+     * was cleared or reflowed again meanwhile.
+     *
+     * @return the future of the task applying the row counts
+     */
+    CompletableFuture<Runnable> reflowRemaining() {
+        ScrollbackStore snapshot = content.snapshot();
+        long snapshotFirstLineNumber = firstLineNumber;
+        int generation = reflowGeneration;
+        int columns = this.columns;
+        WrappingMode wrapping = this.wrapping;
+
+        return CompletableFuture.supplyAsync(() -> {
+            int[] rowCounts = new int[snapshot.size()];
+            Arrays.parallelSetAll(rowCounts, line -> wrapping.countRows(snapshot.get(line), columns));
+            return () -> {
+                if (generation == reflowGeneration) {
+                    // Lines evicted in the meantime are skipped
+                    int evictedLines = (int) Math.min(firstLineNumber - snapshotFirstLineNumber, rowCounts.length);
+                    rowIndex.setAll(0, rowCounts, evictedLines, rowCounts.length - evictedLines);
+                }
+            };
+        });
+    }
+
+    /**
+     * Transfers the wrapped content to the displayContent.
+     * Only the lines which are actually visible are wrapped.
+     * Every row whose content actually changed is marked as dirty.
      *
      * @param scrollPosition the scrolling being applied
      */
     void fillDisplayContent(int scrollPosition) {
+        // Find the line containing the first visible row
+        int lineCount = rowIndex.size();
+        int line = rowIndex.findLine(scrollPosition);
+        int firstRow = rowIndex.getRowsBefore(line);
+
+        // Transfer the visible rows
+        Map<Long, WrappedLine> previousVisibleRows = visibleRows;
+        visibleRows = new HashMap<>();
+        WrappedLine rows = line < content.size() ? getRows(line, previousVisibleRows) : null;
+        int offset = scrollPosition - firstRow;
         for (int index = 0; index < displayContent.length; index++) {
-            int wrappedIndex = index + scrollPosition;
-            if (wrappedIndex < wrappedContent.size()) {
-                displayContent[index] = wrappedContent.get(wrappedIndex);
+            // The row count of the current line is always up to date, the ones of the other lines might be outdated
+            int rowCount = line < content.size() ? rows.rows.length : line == content.size() ? currentLine.getRowCount() : 0;
+            while (line < lineCount && offset >= rowCount) {
+                offset -= rowCount;
+                line++;
+                rows = line < content.size() ? getRows(line, previousVisibleRows) : null;
+                rowCount = line < content.size() ? rows.rows.length : line == content.size() ? currentLine.getRowCount() : 0;
+            }
+
+            String row;
+            int[] runs;
+            if (line < content.size()) {
+                runs = rows.runs != null ? rows.runs[offset] : null;
+                row = rows.rows[offset++];
+            } else if (line == content.size()) {
+                runs = currentLine.getRowRuns(offset);
+                row = currentLine.getRow(offset++);
             } else {
-                displayContent[index] = "";
+                runs = null;
+                row = "";
+            }
+            if (!row.equals(displayContent[index]) || !Arrays.equals(runs, displayRuns[index])) {
+                displayContent[index] = row;
+                displayRuns[index] = runs;
+                dirtyRows.set(index);
             }
         }
     }
 
+    /**
+     * Transfers the given rows to the displayContent instead of the content, like a file shown in place of it.
+     * Every row which actually changed is marked as dirty.
+     *
+     * @param rows the rows, as many as the displayContent has
+     */
+    void fillDisplayContent(String[] rows) {
+        for (int index = 0; index < displayContent.length; index++) {
+            if (!rows[index].equals(displayContent[index]) || displayRuns[index] != null) {
+                displayContent[index] = rows[index];
+                displayRuns[index] = null;
+                dirtyRows.set(index);
+            }
+        }
+    }
+
+    /**
+     * Moves the rows of the displayContent up by the given distance, or down if it is negative, like the
+     * screen moves its lines when they are scrolled. Dirty rows stay dirty and the rows moved into view
+     * are emptied and marked as dirty, so only they have to be drawn after the screen was scrolled the same way.
+     *
+     * @param distance the amount of rows, less than the rows of the displayContent
+     */
+    void scrollDisplayContent(int distance) {
+        int rows = displayContent.length;
+        if (distance > 0) {
+            System.arraycopy(displayContent, distance, displayContent, 0, rows - distance);
+            System.arraycopy(displayRuns, distance, displayRuns, 0, rows - distance);
+            for (int row = 0; row < rows - distance; row++) {
+                dirtyRows.set(row, dirtyRows.get(row + distance));
+            }
+            Arrays.fill(displayContent, rows - distance, rows, "");
+            Arrays.fill(displayRuns, rows - distance, rows, null);
+            dirtyRows.set(rows - distance, rows);
+        } else if (distance < 0) {
+            System.arraycopy(displayContent, 0, displayContent, -distance, rows + distance);
+            System.arraycopy(displayRuns, 0, displayRuns, -distance, rows + distance);
+            for (int row = rows - 1; row >= -distance; row--) {
+                dirtyRows.set(row, dirtyRows.get(row + distance));
+            }
+            Arrays.fill(displayContent, 0, -distance, "");
+            Arrays.fill(displayRuns, 0, -distance, null);
+            dirtyRows.set(0, -distance);
+        }
+    }
+
+    /**
+     * Returns a reference to the rows of the displayContent which have to be redrawn.
+     * The caller is responsible for clearing the rows it has drawn.
+     *
+     * @return the dirty rows
+     */
+    BitSet getDirtyRows() {
+        return dirtyRows;
+    }
+
+    /**
+     * Marks every row of the displayContent as dirty, forcing a full redraw.
+     */
+    void markAllDirty() {
+        dirtyRows.set(0, displayContent.length);
+    }
+
     /**
      * Returns a reference to the displayContent.
      * Should be recalled after a resize.
@@ -83,11 +329,401 @@ class ContentManager {
         return displayContent;
     }
 
+    /**
+     * Returns a reference to the attribute runs of the rows of the displayContent.
+     * Should be recalled after a resize.
+     *
+     * @return the runs of every row, null for rows which are not styled
+     */
+    int[][] getDisplayRuns() {
+        return displayRuns;
+    }
+
+    TextStyle getStyle(int id) {
+        return styles.get(id);
+    }
+
+    /**
+     * Returns the amount of wrapped rows. This is the total height of the content.
+     *
+     * @return the amount of rows
+     */
+    int getRowCount() {
+        return rowIndex.getTotal();
+    }
+
+    /**
+     * Returns the amount of lines, including the one still being printed to.
+     *
+     * @return the amount of lines
+     */
+    int getLineCount() {
+        return rowIndex.size();
+    }
+
+    /**
+     * Returns the index of the line containing the given row.
+     *
+     * @param row the index of the row
+     * @return the index of the line
+     */
+    int getLineAt(int row) {
+        return Math.min(rowIndex.findLine(row), rowIndex.size() - 1);
+    }
+
+    /**
+     * Returns the index of the first row of the given line.
+     *
+     * @param line the index of the line
+     * @return the index of the row
+     */
+    int getFirstRowOf(int line) {
+        return rowIndex.getRowsBefore(line);
+    }
+
+    /**
+     * Returns the amount of rows removed from the top of the content because the scrollback
+     * limit was exceeded since the last call of this method. Used to keep the scrolling
+     * position pointing at the same content.
+     *
+     * @return the amount of evicted rows
+     */
+    int pollEvictedRows() {
+        int rows = evictedRows;
+        evictedRows = 0;
+        return rows;
+    }
+
+    int getScrollbackLimit() {
+        return scrollbackLimit;
+    }
+
+    /**
+     * Sets the maximum amount of lines kept and evicts the oldest lines exceeding it.
+     *
+     * @param scrollbackLimit the maximum amount of lines, 0 means unlimited
+     */
+    void setScrollbackLimit(int scrollbackLimit) {
+        this.scrollbackLimit = scrollbackLimit;
+        trimScrollback();
+    }
+
+    boolean isCompactScrollback() {
+        ScrollbackStore store = content instanceof MappedScrollbackStore ? ((MappedScrollbackStore) content).getAppended() : content;
+        return store instanceof CompactScrollbackStore;
+    }
+
+    /**
+     * Moves the completed lines into a new store of the requested type.
+     *
+     * @param compact true for a {@link CompactScrollbackStore}, false for a {@link HeapScrollbackStore}
+     */
+    void setCompactScrollback(boolean compact) {
+        if (compact != isCompactScrollback()) {
+            ScrollbackStore store = compact ? new CompactScrollbackStore() : new HeapScrollbackStore();
+            if (content instanceof MappedScrollbackStore) {
+                // The restored lines stay in the snapshot file, only the lines added after restoring are moved
+                MappedScrollbackStore mapped = (MappedScrollbackStore) content;
+                for (int index = 0; index < mapped.getAppended().size(); index++) {
+                    store.add(mapped.getAppended().get(index));
+                }
+                content = mapped.withAppended(store);
+                return;
+            }
+            for (int index = 0; index < content.size(); index++) {
+                store.add(content.get(index));
+            }
+            content = store;
+        }
+    }
+
+    boolean isSearchIndexed() {
+        return searchIndex != null;
+    }
+
+    /**
+     * Enables or disables the index of the completed lines used by searches.
+     * Enabling it indexes every line already kept.
+     *
+     * @param indexed whether or not to index the lines
+     */
+    void setSearchIndexed(boolean indexed) {
+        if (indexed && searchIndex == null) {
+            searchIndex = new SearchIndex();
+            for (int line = 0; line < content.size(); line++) {
+                searchIndex.add(firstLineNumber + line, content.get(line));
+            }
+        } else if (!indexed) {
+            searchIndex = null;
+        }
+    }
+
+    /**
+     * Searches the completed lines and highlights the matches of the given search from now on.
+     * <p>
+     * The lines are searched in parallel, in blocks of {@value SearchIndex#BLOCK_LINES} lines.
+     * If the lines are indexed, blocks which can not contain a match are skipped.
+     *
+     * @param search the search, null to remove the highlighting of the current one
+     */
+    void search(Search search) {
+        this.search = search;
+        visibleRows.clear();
+        if (search == null || content.size() == 0) {
+            return;
+        }
+
+        long first = firstLineNumber;
+        long end = firstLineNumber + content.size();
+        long firstBlock = first >>> SearchIndex.BLOCK_SHIFT;
+        Search.Matches[] found = new Search.Matches[(int) (((end - 1) >>> SearchIndex.BLOCK_SHIFT) - firstBlock + 1)];
+        IntStream.range(0, found.length).parallel().forEach(block -> {
+            long blockStart = Math.max(first, (firstBlock + block) << SearchIndex.BLOCK_SHIFT);
+            if (search.mightMatch(searchIndex, blockStart)) {
+                long blockEnd = Math.min(end, (firstBlock + block + 1) << SearchIndex.BLOCK_SHIFT);
+                Search.Matches matches = search.newMatches();
+                for (long lineNumber = blockStart; lineNumber < blockEnd; lineNumber++) {
+                    matches.find(lineNumber, content.get((int) (lineNumber - first)));
+                }
+                found[block] = matches;
+            }
+        });
+        for (Search.Matches matches : found) {
+            if (matches != null) {
+                search.addAll(matches);
+            }
+        }
+    }
+
+    /**
+     * Rewraps the visible lines on the next fill, so the highlighting of the current match is updated.
+     */
+    void updateHighlighting() {
+        visibleRows.clear();
+    }
+
+    /**
+     * Returns the row containing the given character of a completed line.
+     *
+     * @param lineNumber the absolute number of the line
+     * @param offset     the index of the character inside the line
+     * @return the index of the row
+     */
+    int getRowOf(long lineNumber, int offset) {
+        int line = (int) (lineNumber - firstLineNumber);
+        int rowCount = wrapBounds(content.get(line));
+        int row = 0;
+        while (row + 1 < rowCount && wrappedStarts[row + 1] <= offset) {
+            row++;
+        }
+        return rowIndex.getRowsBefore(line) + row;
+    }
+
+    /**
+     * Captures the content, so it can be written to a snapshot file by another thread while this content keeps changing.
+     * Only the index of the completed lines is copied, like for {@link ContentManager#reflowRemaining()}.
+     *
+     * @return the snapshot of the content
+     */
+    SessionSnapshot snapshot() {
+        TextStyle[] styleArray = styles.toArray();
+        int[] styledLines = new int[lineRuns.size()];
+        int[][] styledRuns = new int[styledLines.length][];
+        int styled = 0;
+        for (Map.Entry<Long, int[]> entry : lineRuns.entrySet()) {
+            styledLines[styled] = (int) (entry.getKey() - firstLineNumber);
+            styledRuns[styled++] = entry.getValue(); //Runs are never modified once the line is completed
+        }
+        return new SessionSnapshot(content.snapshot(), styleArray, styledLines, styledRuns, currentLine.toString(), currentLine.getRuns());
+    }
+
+    /**
+     * Replaces the content with the content of a snapshot read from a snapshot file.
+     * <p>
+     * The restored lines stay in the mapped file and are not read at all. Instead of wrapping them, each of
+     * them is counted as one row, until the rows of the visible lines are counted by
+     * {@link ContentManager#reflowVisible} and the ones of the remaining lines by {@link ContentManager#reflowRemaining()}.
+     * Only indexing the restored lines for searches reads all of them.
+     *
+     * @param snapshot the snapshot, whose lines must not be used elsewhere
+     */
+    void restore(SessionSnapshot snapshot) {
+        boolean compact = isCompactScrollback();
+        clear();
+        content = snapshot.getLines();
+        if (compact) {
+            setCompactScrollback(true);
+        }
+        rowIndex.clear();
+        rowIndex.addAll(content.size(), 1);
+        rowIndex.add(0);
+
+        // The styles get new ids when interned again
+        TextStyle[] restoredStyles = snapshot.getStyles();
+        int[] ids = new int[restoredStyles.length];
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = styles.getId(restoredStyles[id]);
+        }
+        int[] styledLines = snapshot.getStyledLines();
+        int[][] styledRuns = snapshot.getStyledRuns();
+        for (int styled = 0; styled < styledLines.length; styled++) {
+            lineRuns.put(firstLineNumber + styledLines[styled], remapStyles(styledRuns[styled], ids));
+        }
+
+        // The current line is appended run by run, so it keeps its styles
+        String line = snapshot.getCurrentLine();
+        int[] runs = snapshot.getCurrentRuns();
+        if (runs == null) {
+            appendLine(line);
+        } else {
+            for (int run = 0, start = 0; run < runs.length; start = runs[run], run += 2) {
+                currentLine.append(line.substring(start, runs[run]), ids[runs[run + 1]]);
+            }
+            rowIndex.setLast(currentLine.getRowCount());
+        }
+
+        if (searchIndex != null) {
+            for (int index = 0; index < content.size(); index++) {
+                searchIndex.add(firstLineNumber + index, content.get(index));
+            }
+        }
+        trimScrollback();
+        evictedRows = 0; //Nothing was shown yet, so there is no scrolling position to keep
+    }
+
+    /**
+     * Returns the estimated amount of heap memory in bytes used by the content.
+     *
+     * @return the memory usage in bytes
+     */
+    long getMemoryUsage() {
+        long runsUsage = 0;
+        for (int[] runs : lineRuns.values()) {
+            runsUsage += 16 + 4L * runs.length;
+        }
+        long indexUsage = searchIndex != null ? searchIndex.getMemoryUsage() : 0;
+        return content.getMemoryUsage() + rowIndex.getMemoryUsage() + currentLine.getMemoryUsage() + runsUsage + indexUsage
+                + styles.getMemoryUsage();
+    }
+
     WrappingMode getWrapping() {
         return wrapping;
     }
 
-    void setWrapping(WrappingMode wrapping) {
-        this.wrapping = wrapping;
+    /**
+     * Returns the wrapped rows of a completed line, reusing the rows of lines which were already visible.
+     */
+    private WrappedLine getRows(int line, Map<Long, WrappedLine> previousVisibleRows) {
+        long lineNumber = firstLineNumber + line;
+        WrappedLine rows = previousVisibleRows.get(lineNumber);
+        if (rows == null) {
+            String text = content.get(line);
+            int[] runs = lineRuns.get(lineNumber);
+            if (search != null) {
+                runs = search.highlight(lineNumber, text, runs, styles);
+            }
+            rows = runs == null ? new WrappedLine(wrapping.wrap(text, columns), null) : wrapStyled(text, runs);
+        }
+        visibleRows.put(lineNumber, rows);
+        return rows;
+    }
+
+    /**
+     * Wraps a styled line using the boundaries of its rows, so the attribute runs can be split at the same indices.
+     */
+    private WrappedLine wrapStyled(String line, int[] runs) {
+        int rowCount = wrapBounds(line);
+        String[] rows = new String[rowCount];
+        int[][] rowRuns = new int[rowCount][];
+        for (int row = 0; row < rowCount; row++) {
+            rows[row] = line.substring(wrappedStarts[row], wrappedEnds[row]);
+            rowRuns[row] = StyleTable.slice(runs, runs.length / 2, wrappedStarts[row], wrappedEnds[row]);
+        }
+        return new WrappedLine(rows, rowRuns);
+    }
+
+    /**
+     * Writes the boundaries of the rows of a line into wrappedStarts and wrappedEnds, growing them if needed.
+     *
+     * @return the amount of rows
+     */
+    private int wrapBounds(String line) {
+        int rowCount = wrapping.wrap(line, 0, columns, wrappedStarts, wrappedEnds);
+        if (rowCount > wrappedStarts.length) {
+            wrappedStarts = new int[rowCount];
+            wrappedEnds = new int[rowCount];
+            wrapping.wrap(line, 0, columns, wrappedStarts, wrappedEnds);
+        }
+        return rowCount;
+    }
+
+    private static int[] remapStyles(int[] runs, int[] ids) {
+        int[] remapped = runs.clone();
+        for (int run = 1; run < remapped.length; run += 2) {
+            remapped[run] = ids[remapped[run]];
+        }
+        return remapped;
+    }
+
+    private void trimScrollback() {
+        long previousFirstLineNumber = firstLineNumber;
+        while (scrollbackLimit > 0 && content.size() >= scrollbackLimit) {
+            content.removeFirst();
+            lineRuns.remove(firstLineNumber);
+            evictedRows += rowIndex.removeFirst();
+            firstLineNumber++;
+        }
+        if (firstLineNumber != previousFirstLineNumber) {
+            if (searchIndex != null) {
+                searchIndex.removeBefore(firstLineNumber);
+            }
+            if (search != null) {
+                search.removeBefore(firstLineNumber);
+            }
+            if (styles.needsCompaction()) {
+                compactStyles();
+            }
+        }
+    }
+
+    /**
+     * Forgets the styles which were only referenced by evicted lines.
+     * The styles of every kept line, the current line and the rows still cached or shown are kept.
+     */
+    private void compactStyles() {
+        BitSet used = new BitSet();
+        markStyles(used, currentLine.getRuns());
+        for (int[] runs : lineRuns.values()) {
+            markStyles(used, runs);
+        }
+        for (WrappedLine line : visibleRows.values()) {
+            if (line.runs != null) {
+                for (int[] runs : line.runs) {
+                    markStyles(used, runs);
+                }
+            }
+        }
+        for (int[] runs : displayRuns) {
+            markStyles(used, runs);
+        }
+        styles.compact(used);
+    }
+
+    private static void markStyles(BitSet used, int[] runs) {
+        if (runs != null) {
+            for (int run = 1; run < runs.length; run += 2) {
+                used.set(runs[run]);
+            }
+        }
+    }
+
+    private static class WrappedLine {
+        private final String[] rows;
+        private final int[][] runs; //Attribute runs of every row, null if the line is not styled
+
+        private WrappedLine(String[] rows, int[][] runs) {
+            this.rows = rows;
+            this.runs = runs;
+        }
     }
-}
\ No newline at end of file
+}
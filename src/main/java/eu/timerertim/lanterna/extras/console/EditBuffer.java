@@ -0,0 +1,134 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.util.Arrays;
+
+/**
+ * Gap buffer holding the text of a line being edited.
+ * <p>
+ * The free space of the buffer is kept at the cursor, so inserting and deleting characters
+ * costs O(1) no matter where the cursor is. Moving the cursor by one character also costs O(1),
+ * as only one character is moved to the other side of the gap.
+ */
+class EditBuffer implements CharSequence {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private char[] buffer;
+    private int gapStart; //Index of the cursor
+    private int gapEnd; //Index of the first character behind the cursor
+
+    EditBuffer() {
+        this.buffer = new char[DEFAULT_CAPACITY];
+        this.gapStart = 0;
+        this.gapEnd = buffer.length;
+    }
+
+    /**
+     * Inserts a character in front of the cursor.
+     *
+     * @param character the character to insert
+     */
+    void insert(char character) {
+        if (gapStart == gapEnd) {
+            grow();
+        }
+        buffer[gapStart++] = character;
+    }
+
+    /**
+     * Deletes the character in front of the cursor, like the backspace key does.
+     *
+     * @return false if there is no character in front of the cursor
+     */
+    boolean deleteBackward() {
+        if (gapStart == 0) {
+            return false;
+        }
+        gapStart--;
+        return true;
+    }
+
+    /**
+     * Deletes the character behind the cursor, like the delete key does.
+     *
+     * @return false if there is no character behind the cursor
+     */
+    boolean deleteForward() {
+        if (gapEnd == buffer.length) {
+            return false;
+        }
+        gapEnd++;
+        return true;
+    }
+
+    boolean moveLeft() {
+        if (gapStart == 0) {
+            return false;
+        }
+        buffer[--gapEnd] = buffer[--gapStart];
+        return true;
+    }
+
+    boolean moveRight() {
+        if (gapEnd == buffer.length) {
+            return false;
+        }
+        buffer[gapStart++] = buffer[gapEnd++];
+        return true;
+    }
+
+    /**
+     * Returns the position of the cursor, which is the amount of characters in front of it.
+     *
+     * @return the index of the cursor
+     */
+    int getCursor() {
+        return gapStart;
+    }
+
+    @Override
+    public int length() {
+        return buffer.length - (gapEnd - gapStart);
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + length());
+        }
+        return index < gapStart ? buffer[index] : buffer[index + gapEnd - gapStart];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException("Start: " + start + ", End: " + end + ", Size: " + length());
+        }
+
+        StringBuilder sequence = new StringBuilder(end - start);
+        if (start < gapStart) {
+            sequence.append(buffer, start, Math.min(end, gapStart) - start);
+        }
+        if (end > gapStart) {
+            int gap = gapEnd - gapStart;
+            int from = Math.max(start, gapStart);
+            sequence.append(buffer, from + gap, end - from);
+        }
+        return sequence;
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+
+    /**
+     * Doubles the capacity, keeping the characters behind the cursor at the end of the buffer.
+     */
+    private void grow() {
+        int tail = buffer.length - gapEnd;
+        char[] grown = Arrays.copyOf(buffer, buffer.length * 2);
+        System.arraycopy(buffer, gapEnd, grown, grown.length - tail, tail);
+        gapEnd = grown.length - tail;
+        buffer = grown;
+    }
+}
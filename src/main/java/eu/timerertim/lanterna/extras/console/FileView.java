@@ -0,0 +1,223 @@
+package eu.timerertim.lanterna.extras.console;
+
+import eu.timerertim.lanterna.extras.utils.WrappingMode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A file shown read-only by a {@link Console} in place of its content, created by {@link Console#viewFile}.
+ * <p>
+ * The file is memory mapped instead of being read onto the heap, so even files with multiple gigabytes
+ * open instantly. Only the lines which are visible are decoded and wrapped using the wrapping of the console.
+ * Text printed to the console while a file is viewed is added to its content as usual and shown once the
+ * view is closed.
+ */
+public final class FileView implements Closeable {
+    private final ScreenConsole console;
+    private final MappedFile file;
+    private long topLine; //Line at the top of the console
+    private int topRow; //Wrapped row of that line at the top of the console
+    private int scrolls; //Amount of scroll operations, so scrolling waiting for the index is dropped if scrolled again
+    private boolean closed;
+
+    FileView(ScreenConsole console, MappedFile file) {
+        this.console = console;
+        this.file = file;
+    }
+
+    /**
+     * Scrolls the view by the given amount of wrapped rows. Scrolling stops at the top
+     * and once the end of the file is visible at the bottom of the console.
+     *
+     * @param rows the amount of rows, negative to scroll up
+     */
+    public void scrollBy(int rows) {
+        synchronized (console) {
+            ensureOpen();
+            scrolls++;
+            move(rows);
+            fitBottom();
+            console.showFileView();
+        }
+    }
+
+    /**
+     * Scrolls the view to show the given line at the top of the console, or as near to it as possible.
+     * <p>
+     * Before the file was indexed, finding a line far into it would scan the file while rendering and input wait
+     * for the console. Instead, this method returns immediately and the view is scrolled once the file was indexed,
+     * unless it was scrolled again in the meantime.
+     *
+     * @param line the index of the line, starting at 0
+     */
+    public void scrollToLine(long line) {
+        synchronized (console) {
+            ensureOpen();
+            int scroll = ++scrolls;
+            if (!file.isIndexed()) {
+                file.whenIndexed(() -> {
+                    synchronized (console) {
+                        if (!closed && scroll == scrolls) {
+                            showLine(line);
+                        }
+                    }
+                });
+                return;
+            }
+            showLine(line);
+        }
+    }
+
+    /**
+     * Returns the index of the line at the top of the console.
+     *
+     * @return the index of the line, starting at 0
+     */
+    public long getTopLine() {
+        synchronized (console) {
+            return topLine;
+        }
+    }
+
+    /**
+     * Returns the amount of lines of the file, without waiting for the file to be indexed.
+     *
+     * @return the amount of lines or -1 if the file was not indexed yet
+     */
+    public long getLineCount() {
+        return file.getLineCount();
+    }
+
+    /**
+     * Returns whether the lines of the file were already indexed in the background.
+     * Before that, the lines are not counted and scrolling to a line is delayed until the file was indexed.
+     *
+     * @return true if the file was indexed
+     */
+    public boolean isIndexed() {
+        return file.isIndexed();
+    }
+
+    /**
+     * Closes the file and shows the content of the console again. Has no effect on second call.
+     */
+    @Override
+    public void close() {
+        synchronized (console) {
+            if (!closed) {
+                closed = true;
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                console.closeFileView(this);
+            }
+        }
+    }
+
+    /**
+     * Wraps the visible lines into the given array of rows.
+     * Rows behind the end of the file are empty.
+     *
+     * @param rows the array receiving the rows
+     */
+    void fillRows(String[] rows) {
+        int row = 0;
+        int offset = topRow;
+        for (long line = topLine; row < rows.length; line++) {
+            String[] wrapped = wrap(line);
+            if (wrapped == null) {
+                break;
+            }
+            for (; offset < wrapped.length && row < rows.length; offset++) {
+                rows[row++] = wrapped[offset];
+            }
+            offset = 0;
+        }
+        Arrays.fill(rows, row, rows.length, "");
+    }
+
+    /**
+     * Shows the given line at the top of the console, or the last line if the file does not have that many lines.
+     * The file has to be indexed, so looking up the line does not scan the file.
+     */
+    private void showLine(long line) {
+        topLine = Math.max(0, line);
+        topRow = 0;
+        if (file.getLine(topLine) == null) {
+            topLine = file.getLineCount() - 1;
+        }
+        fitBottom();
+        console.showFileView();
+    }
+
+    /**
+     * Moves the top of the view by the given amount of rows, only wrapping the lines passed.
+     */
+    private void move(long rows) {
+        long target = topRow + rows;
+        if (target >= 0) {
+            String[] wrapped = wrap(topLine);
+            while (target >= wrapped.length) {
+                String[] next = wrap(topLine + 1);
+                if (next == null) {
+                    target = wrapped.length - 1;
+                    break;
+                }
+                target -= wrapped.length;
+                topLine++;
+                wrapped = next;
+            }
+        } else {
+            while (target < 0 && topLine > 0) {
+                topLine--;
+                target += wrap(topLine).length;
+            }
+            target = Math.max(0, target);
+        }
+        topRow = (int) target;
+    }
+
+    /**
+     * Moves the view up if the end of the file is visible in front of the bottom of the console.
+     */
+    private void fitBottom() {
+        int height = console.getVisibleRows();
+        int rows = 0;
+        int offset = topRow;
+        for (long line = topLine; rows < height; line++) {
+            String[] wrapped = wrap(line);
+            if (wrapped == null) {
+                break;
+            }
+            rows += wrapped.length - offset;
+            offset = 0;
+        }
+        if (rows < height) {
+            move(rows - height);
+        }
+    }
+
+    /**
+     * Wraps a line of the file like the console wraps its content.
+     *
+     * @return the rows or null if the file does not have that many lines
+     */
+    private String[] wrap(long line) {
+        String text = file.getLine(line);
+        if (text == null) {
+            return null;
+        }
+        WrappingMode wrapping = console.getWrapping();
+        return wrapping.wrap(text, console.getColumns());
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("The file view is closed");
+        }
+    }
+}
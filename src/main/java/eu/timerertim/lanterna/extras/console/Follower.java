@@ -0,0 +1,220 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints everything appended to a file or read from a channel to a {@link Console}, like {@code tail -f} does.
+ * Created by {@link Console#follow(Path, Charset)} and {@link Console#follow(ReadableByteChannel, Charset)}.
+ * <p>
+ * The bytes are read by a background thread into one reused direct buffer and decoded straight out of it,
+ * then handled like the text written to {@link Console#newOutputStream(Charset)}. While a followed file does not
+ * grow, the thread waits for the file system to report a change, only checking the size of the file every
+ * {@value #POLL_INTERVAL} milliseconds in case a change is not reported. If the file is truncated, for example
+ * because a log was rotated, it is followed from its start again.
+ */
+public final class Follower implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long POLL_INTERVAL = 500; //Milliseconds between checks of a file whose changes are not reported
+    private static final long EMPTY_READ_DELAY = 10; //Milliseconds to wait after a non-blocking channel had nothing to read
+
+    private final ScreenConsole console;
+    private final ReadableByteChannel channel;
+    private final ConsoleOutputStream stream;
+    private final ByteBuffer buffer;
+    private final WatchService watcher; //Null if following a channel or if changes of the file system can not be watched
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Prepares following a file, starting at its current end.
+     */
+    Follower(ScreenConsole console, Path file, Charset charset) throws IOException {
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+        long start;
+        try {
+            start = fileChannel.size();
+        } catch (IOException e) {
+            fileChannel.close();
+            throw e;
+        }
+        this.console = console;
+        this.channel = fileChannel;
+        this.stream = new ConsoleOutputStream(console, charset);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.watcher = newWatcher(file);
+        this.thread = newThread(() -> followFile(fileChannel, start));
+    }
+
+    /**
+     * Prepares following a channel until it reaches its end.
+     */
+    Follower(ScreenConsole console, ReadableByteChannel channel, Charset charset) {
+        this.console = console;
+        this.channel = channel;
+        this.stream = new ConsoleOutputStream(console, charset);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.watcher = null;
+        this.thread = newThread(this::followChannel);
+    }
+
+    /**
+     * Returns whether new bytes are still being followed. Following a channel stops at its end.
+     *
+     * @return true if bytes are followed
+     */
+    public boolean isAlive() {
+        return thread.isAlive();
+    }
+
+    /**
+     * Stops following and closes the file or channel. Has no effect on second call.
+     * Called automatically once a channel reached its end.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            thread.interrupt();
+            closeWatcher();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            console.removeFollower(this);
+        }
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    private Thread newThread(Runnable task) {
+        Thread thread = new Thread(() -> {
+            try {
+                task.run();
+            } finally {
+                stream.close();
+                close();
+            }
+        }, "Console-Follow");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Watches the directory containing the file for changes.
+     *
+     * @return the watcher or null if the file system does not support watching
+     */
+    private static WatchService newWatcher(Path file) {
+        WatchService watcher = null;
+        try {
+            watcher = file.getFileSystem().newWatchService();
+            file.toAbsolutePath().getParent().register(watcher, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+            return watcher;
+        } catch (IOException | UnsupportedOperationException e) {
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException closeException) {
+                    e.addSuppressed(closeException);
+                }
+            }
+            return null;
+        }
+    }
+
+    private void followFile(FileChannel file, long start) {
+        try {
+            long position = start;
+            while (!closed) {
+                int read = file.read(buffer, position);
+                if (read > 0) {
+                    position += read;
+                    printBuffer();
+                } else if (file.size() < position) {
+                    position = 0; //Truncated
+                } else {
+                    awaitChange();
+                }
+            }
+        } catch (ClosedChannelException e) {
+            // Closed while reading
+        } catch (IOException e) {
+            if (!closed) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void followChannel() {
+        try {
+            int read;
+            while (!closed && (read = channel.read(buffer)) >= 0) {
+                if (read > 0) {
+                    printBuffer();
+                } else {
+                    Thread.sleep(EMPTY_READ_DELAY);
+                }
+            }
+        } catch (ClosedChannelException | InterruptedException e) {
+            // Closed while reading
+        } catch (IOException e) {
+            if (!closed) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Prints the bytes read into the buffer, keeping the bytes of an incomplete character for the next read.
+     */
+    private void printBuffer() throws IOException {
+        buffer.flip();
+        stream.write(buffer);
+        buffer.compact();
+    }
+
+    /**
+     * Waits until a change of the directory containing the file is reported or the poll interval elapsed.
+     */
+    private void awaitChange() {
+        try {
+            if (watcher != null) {
+                WatchKey key = watcher.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            } else {
+                Thread.sleep(POLL_INTERVAL);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed while waiting
+        }
+    }
+
+    private void closeWatcher() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package eu.timerertim.lanterna.extras.console;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.screen.TerminalScreen;
+import com.googlecode.lanterna.terminal.virtual.DefaultVirtualTerminal;
+import com.googlecode.lanterna.terminal.virtual.VirtualTerminal;
+
+import java.io.IOException;
+
+/**
+ * A {@link ScreenConsole} drawing to a virtual terminal in memory instead of a real one.
+ * <p>
+ * No AWT or Swing classes are involved, so this console also works in headless environments and
+ * starts fast. The drawn content can be inspected through {@link HeadlessConsole#getTerminal()}, while
+ * the amount of work done for drawing it is counted. This makes it useful for automated tests, e.g. to
+ * verify that printing a line does not redraw the whole console.
+ */
+public class HeadlessConsole extends ScreenConsole {
+    private final VirtualTerminal terminal;
+
+    /**
+     * Creates a new HeadlessConsole object of the given size.
+     *
+     * @param size       the size of the virtual terminal, including the row used for input
+     * @param autoUpdate the boolean describing the update behavior (comparable to auto flush)
+     * @throws IOException the {@code Exception} thrown if there is an underlying IO error when starting the screen
+     */
+    public HeadlessConsole(TerminalSize size, boolean autoUpdate) throws IOException {
+        this(new DefaultVirtualTerminal(size), autoUpdate);
+    }
+
+    /**
+     * Same as calling {@link HeadlessConsole#HeadlessConsole(TerminalSize, boolean) HeadlessConsole(size, true)}.
+     *
+     * @param size the size of the virtual terminal, including the row used for input
+     * @throws IOException the {@code Exception} thrown if there is an underlying IO error when starting the screen
+     */
+    public HeadlessConsole(TerminalSize size) throws IOException {
+        this(size, true);
+    }
+
+    private HeadlessConsole(VirtualTerminal terminal, boolean autoUpdate) throws IOException {
+        super(new TerminalScreen(terminal), autoUpdate);
+        this.terminal = terminal;
+    }
+
+    /**
+     * Returns the virtual terminal this console draws to.
+     * <p>
+     * It can be used to read the drawn characters, to resize the console or to simulate user input.
+     *
+     * @return the underlying virtual terminal
+     */
+    public VirtualTerminal getTerminal() {
+        return terminal;
+    }
+
+    /**
+     * Returns the amount of cells written to the screen since the counters were last reset.
+     * Every redrawn row counts at least as many cells as the console has columns.
+     *
+     * @return the amount of written cells
+     */
+    public synchronized long getCellsWritten() {
+        return cellsWritten;
+    }
+
+    /**
+     * Returns the amount of rows drawn to the screen since the counters were last reset.
+     * This includes the row used for input.
+     *
+     * @return the amount of redrawn rows
+     */
+    public synchronized long getRowsRedrawn() {
+        return rowsRedrawn;
+    }
+
+    /**
+     * Returns the amount of times the screen was refreshed since the counters were last reset,
+     * which is the amount of times changes were sent to the terminal.
+     *
+     * @return the amount of refreshes
+     */
+    public synchronized long getRefreshes() {
+        return refreshes;
+    }
+
+    /**
+     * Sets all counters back to zero, so the costs of the following operations can be measured.
+     */
+    public synchronized void resetCounters() {
+        cellsWritten = 0;
+        rowsRedrawn = 0;
+        refreshes = 0;
+    }
+}
@@ -0,0 +1,61 @@
+package eu.timerertim.lanterna.extras.console;
+
+/**
+ * The default {@link ScrollbackStore}, which simply keeps every line as its own {@code String}.
+ */
+class HeapScrollbackStore implements ScrollbackStore {
+    private static final int STRING_OVERHEAD = 56; //String object, its backing array and the reference to it
+
+    private final RingBuffer<String> lines;
+    private long memoryUsage;
+
+    HeapScrollbackStore() {
+        this(new RingBuffer<>(), 0);
+    }
+
+    private HeapScrollbackStore(RingBuffer<String> lines, long memoryUsage) {
+        this.lines = lines;
+        this.memoryUsage = memoryUsage;
+    }
+
+    @Override
+    public void add(String line) {
+        lines.add(line);
+        memoryUsage += estimateMemoryUsage(line);
+    }
+
+    @Override
+    public String get(int index) {
+        return lines.get(index);
+    }
+
+    @Override
+    public void removeFirst() {
+        memoryUsage -= estimateMemoryUsage(lines.removeFirst());
+    }
+
+    @Override
+    public int size() {
+        return lines.size();
+    }
+
+    @Override
+    public void clear() {
+        lines.clear();
+        memoryUsage = 0;
+    }
+
+    @Override
+    public ScrollbackStore snapshot() {
+        return new HeapScrollbackStore(new RingBuffer<>(lines), memoryUsage);
+    }
+
+    @Override
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    private static long estimateMemoryUsage(String line) {
+        return STRING_OVERHEAD + 2L * line.length();
+    }
+}
@@ -0,0 +1,93 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations with buckets growing in powers of two.
+ * <p>
+ * The first bucket counts durations below one microsecond, every further bucket twice as long durations
+ * as the previous one. Recording a duration therefore never allocates and costs only a few atomic additions.
+ */
+class LatencyHistogram {
+    private static final int BUCKETS = 32; //The last bucket counts everything longer than about 18 minutes
+
+    private final AtomicLongArray counts;
+    private final AtomicLong count;
+    private final AtomicLong sum;
+    private final AtomicLong max;
+
+    LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.count = new AtomicLong();
+        this.sum = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        count.incrementAndGet();
+        sum.addAndGet(micros);
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    long[] getCounts() {
+        long[] snapshot = new long[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            snapshot[bucket] = counts.get(bucket);
+        }
+        return snapshot;
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the mean of all recorded durations.
+     *
+     * @return the mean in microseconds, 0 if nothing was recorded
+     */
+    double getMean() {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : (double) sum.get() / recorded;
+    }
+
+    long getSum() {
+        return sum.get();
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts.set(bucket, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Returns the exclusive upper bound of every bucket.
+     *
+     * @return the bounds in microseconds
+     */
+    static long[] getBounds() {
+        long[] bounds = new long[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS - 1; bucket++) {
+            bounds[bucket] = 1L << bucket;
+        }
+        bounds[BUCKETS - 1] = Long.MAX_VALUE;
+        return bounds;
+    }
+}
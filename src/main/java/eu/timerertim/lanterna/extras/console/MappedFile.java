@@ -0,0 +1,318 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only file mapped into memory, giving access to its lines without reading the whole file onto the heap.
+ * <p>
+ * The file is mapped in segments, as a single mapping can not exceed 2GB. Opening a file only maps it,
+ * while the line index is built in the background. It is built in parallel, every task indexing one chunk
+ * of the file. Instead of the offset of every line, only the offset of every {@value #CHECKPOINT_INTERVAL}th
+ * line is kept, so the index of a file with millions of lines only takes up a few kilobytes.
+ * Lines are found by scanning forward from the nearest checkpoint, or from the line looked up last,
+ * which also works before the index is built.
+ * <p>
+ * Lines are only decoded when requested. Not thread safe, except for the building of the index.
+ */
+class MappedFile implements Closeable {
+    private static final int SEGMENT_SHIFT = 30; //Segments are 1GB large
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long CHUNK_SIZE = 64L << 20; //Bytes indexed by one task, divides the segment size
+    private static final int CHECKPOINT_INTERVAL = 1024; //Lines between the lines whose offsets are kept
+    private static final int MAX_LINE_LENGTH = 1 << 20; //Bytes of a line which are decoded at most
+
+    private final FileChannel channel;
+    private final long size;
+    private final MappedByteBuffer[] segments;
+    private final Charset charset;
+    private final CompletableFuture<LineIndex> index;
+    private volatile boolean closed;
+
+    // Line looked up last, so nearby lines only need to scan the bytes in between
+    private long cursorLine;
+    private long cursorOffset;
+
+    /**
+     * Maps the given file and starts building its line index in the background.
+     *
+     * @param path    the file to map
+     * @param charset the charset used for decoding the lines
+     * @throws IOException if the file can not be opened or mapped
+     */
+    MappedFile(Path path, Charset charset) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.charset = charset;
+        this.segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >> SEGMENT_SHIFT)];
+        try {
+            for (int segment = 0; segment < segments.length; segment++) {
+                long start = (long) segment << SEGMENT_SHIFT;
+                segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.index = CompletableFuture.supplyAsync(this::buildIndex);
+    }
+
+    /**
+     * Returns the given line, decoded and without its line terminator.
+     * Lines longer than {@value #MAX_LINE_LENGTH} bytes are cut.
+     *
+     * @param line the index of the line
+     * @return the line or null if the file does not have that many lines
+     */
+    String getLine(long line) {
+        long start = getLineStart(line);
+        if (start < 0) {
+            return null;
+        }
+
+        long end = indexOf(start, Math.min(size, start + MAX_LINE_LENGTH));
+        if (end < 0) {
+            end = Math.min(size, start + MAX_LINE_LENGTH);
+        }
+        if (end > start && get(end - 1) == '\r') {
+            end--;
+        }
+        byte[] bytes = new byte[(int) (end - start)];
+        for (int index = 0; index < bytes.length; index++) {
+            bytes[index] = get(start + index);
+        }
+        return new String(bytes, charset);
+    }
+
+    /**
+     * Returns the amount of lines without waiting for the line index to be built.
+     * A line terminator at the end of the file does not start another line.
+     *
+     * @return the amount of lines or -1 if the line index was not built yet
+     */
+    long getLineCount() {
+        LineIndex lineIndex = index.getNow(null);
+        return lineIndex == null ? -1 : lineIndex.lineCount;
+    }
+
+    /**
+     * Executes the given action once the line index was built, immediately if it already was.
+     *
+     * @param action the action, executed by the thread building the index
+     */
+    void whenIndexed(Runnable action) {
+        index.thenRun(action);
+    }
+
+    boolean isIndexed() {
+        return index.isDone();
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the estimated amount of heap memory in bytes used by the line index.
+     *
+     * @return the memory usage in bytes
+     */
+    long getMemoryUsage() {
+        LineIndex lineIndex = index.getNow(null);
+        return lineIndex == null ? 0 : lineIndex.getMemoryUsage();
+    }
+
+    /**
+     * Closes the file. Building the line index is stopped.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+
+    /**
+     * Finds the offset of the first byte of a line.
+     *
+     * @return the offset or -1 if the file does not have that many lines
+     */
+    private long getLineStart(long line) {
+        if (line < 0) {
+            return -1;
+        }
+
+        // Start scanning at the nearest known line in front of the requested one
+        long fromLine = 0;
+        long fromOffset = 0;
+        LineIndex lineIndex = index.getNow(null);
+        if (lineIndex != null) {
+            if (line >= lineIndex.lineCount) {
+                return -1;
+            }
+            if (line > 0) {
+                int chunk = lineIndex.findChunk(line);
+                int checkpoint = (int) ((line - 1 - lineIndex.newlinesBefore[chunk]) / CHECKPOINT_INTERVAL);
+                fromLine = lineIndex.newlinesBefore[chunk] + (long) checkpoint * CHECKPOINT_INTERVAL + 1;
+                fromOffset = lineIndex.checkpoints[chunk][checkpoint];
+            }
+        }
+        if (cursorLine <= line && cursorLine > fromLine) {
+            fromLine = cursorLine;
+            fromOffset = cursorOffset;
+        } else if (cursorLine > line && (lineIndex == null || cursorLine - line < line - fromLine)) {
+            // Scanning backwards is shorter
+            long offset = cursorOffset;
+            for (long current = cursorLine; current > line; current--) {
+                offset = lastIndexOf(offset - 2) + 1;
+            }
+            cursorLine = line;
+            cursorOffset = offset;
+            return offset;
+        }
+
+        for (; fromLine < line; fromLine++) {
+            long newline = indexOf(fromOffset, size);
+            if (newline < 0 || newline == size - 1) {
+                return -1; //No line after the last line terminator
+            }
+            fromOffset = newline + 1;
+        }
+        cursorLine = line;
+        cursorOffset = fromOffset;
+        return fromOffset;
+    }
+
+    private byte get(long offset) {
+        return segments[(int) (offset >> SEGMENT_SHIFT)].get((int) (offset & (SEGMENT_SIZE - 1)));
+    }
+
+    /**
+     * Finds the first line feed between the given offsets.
+     *
+     * @return the offset of the line feed or -1 if there is none
+     */
+    private long indexOf(long from, long to) {
+        for (long offset = from; offset < to; offset++) {
+            if (get(offset) == '\n') {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the last line feed at or in front of the given offset.
+     *
+     * @return the offset of the line feed or -1 if there is none
+     */
+    private long lastIndexOf(long from) {
+        for (long offset = from; offset >= 0; offset--) {
+            if (get(offset) == '\n') {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private LineIndex buildIndex() {
+        int chunks = (int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        long[][] checkpoints = new long[chunks][];
+        long[] newlines = new long[chunks];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            if (!closed) {
+                indexChunk(chunk, checkpoints, newlines);
+            }
+        });
+
+        // Every chunk only knows its own line feeds, so the lines in front of each chunk are summed up afterwards
+        long[] newlinesBefore = new long[chunks];
+        long total = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            newlinesBefore[chunk] = total;
+            total += newlines[chunk];
+        }
+        boolean terminated = size > 0 && !closed && get(size - 1) == '\n';
+        return new LineIndex(newlinesBefore, checkpoints, terminated ? total : total + 1);
+    }
+
+    /**
+     * Counts the line feeds of a chunk, keeping the offset behind every {@value #CHECKPOINT_INTERVAL}th of them.
+     */
+    private void indexChunk(int chunk, long[][] checkpoints, long[] newlines) {
+        long start = chunk * CHUNK_SIZE;
+        MappedByteBuffer segment = segments[(int) (start >> SEGMENT_SHIFT)].duplicate();
+        int from = (int) (start & (SEGMENT_SIZE - 1));
+        int to = (int) Math.min(from + CHUNK_SIZE, segment.limit());
+
+        long[] offsets = new long[16];
+        int count = 0;
+        for (int index = from; index < to; index++) {
+            if (segment.get(index) == '\n') {
+                if (count % CHECKPOINT_INTERVAL == 0) {
+                    int checkpoint = count / CHECKPOINT_INTERVAL;
+                    if (checkpoint == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+                    }
+                    offsets[checkpoint] = start - from + index + 1;
+                }
+                count++;
+            }
+        }
+        checkpoints[chunk] = Arrays.copyOf(offsets, (count + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL);
+        newlines[chunk] = count;
+    }
+
+    /**
+     * Offsets of every {@value #CHECKPOINT_INTERVAL}th line of every chunk.
+     * Line n starts behind the nth line feed, so checkpoint k of a chunk is the start of
+     * line {@code newlinesBefore + k * CHECKPOINT_INTERVAL + 1}.
+     */
+    private static class LineIndex {
+        private final long[] newlinesBefore; //Amount of line feeds in front of every chunk
+        private final long[][] checkpoints;
+        private final long lineCount;
+
+        private LineIndex(long[] newlinesBefore, long[][] checkpoints, long lineCount) {
+            this.newlinesBefore = newlinesBefore;
+            this.checkpoints = checkpoints;
+            this.lineCount = lineCount;
+        }
+
+        /**
+         * Finds the chunk containing the line feed in front of the given line, which is the last chunk
+         * with less line feeds in front of it than the line number.
+         *
+         * @param line the index of the line, at least 1
+         * @return the index of the chunk
+         */
+        private int findChunk(long line) {
+            int low = 0;
+            int high = newlinesBefore.length - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (newlinesBefore[middle] <= line - 1) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+
+        private long getMemoryUsage() {
+            long usage = 16 + 8L * newlinesBefore.length;
+            for (long[] offsets : checkpoints) {
+                usage += 16 + 8L * offsets.length;
+            }
+            return usage;
+        }
+    }
+}
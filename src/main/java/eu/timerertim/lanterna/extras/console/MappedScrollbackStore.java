@@ -0,0 +1,147 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link ScrollbackStore} reading the lines restored from a snapshot file straight from its memory mapping.
+ * <p>
+ * The restored lines are located using the line index of the snapshot, which is part of the mapping as well,
+ * so restoring does not read a single line. A line is only decoded when it is requested, which typically
+ * only happens for lines visible on the console. Lines added after restoring are kept in another store.
+ * Evicting restored lines only moves the start of the restored range, the mapping itself is kept.
+ */
+class MappedScrollbackStore implements ScrollbackStore {
+    private final ByteBuffer[] segments; //Read-only mapping of the snapshot file in segments of 1GB
+    private final long indexOffset; //Offset of the line index inside the snapshot file
+    private final long textOffset; //Offset of the line characters inside the snapshot file
+    private final ScrollbackStore appended; //Lines added after restoring
+    private long first; //Index of the first restored line which was not evicted
+    private int restored; //Amount of restored lines which were not evicted
+
+    /**
+     * Creates a new store of the restored lines.
+     *
+     * @param segments    the mapping of the snapshot file
+     * @param indexOffset the offset of the line index, which holds the start of every line followed by the end of the last line
+     * @param textOffset  the offset of the line characters
+     * @param lineCount   the amount of restored lines
+     * @param appended    the empty store receiving the lines added later
+     */
+    MappedScrollbackStore(ByteBuffer[] segments, long indexOffset, long textOffset, int lineCount, ScrollbackStore appended) {
+        this.segments = segments;
+        this.indexOffset = indexOffset;
+        this.textOffset = textOffset;
+        this.appended = appended;
+        this.first = 0;
+        this.restored = lineCount;
+    }
+
+    @Override
+    public void add(String line) {
+        appended.add(line);
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        } else if (index >= restored) {
+            return appended.get(index - restored);
+        }
+
+        long line = first + index;
+        long start = getLong(indexOffset + 8 * line);
+        long end = getLong(indexOffset + 8 * (line + 1)) & ~SessionSnapshot.UTF16_FLAG;
+        byte[] bytes = new byte[(int) (end - (start & ~SessionSnapshot.UTF16_FLAG))];
+        read(textOffset + (start & ~SessionSnapshot.UTF16_FLAG), bytes);
+
+        // Decode the line
+        if ((start & SessionSnapshot.UTF16_FLAG) == 0) {
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        } else {
+            return new String(bytes, StandardCharsets.UTF_16BE);
+        }
+    }
+
+    @Override
+    public void removeFirst() {
+        if (restored > 0) {
+            first++;
+            restored--;
+        } else {
+            appended.removeFirst();
+        }
+    }
+
+    @Override
+    public int size() {
+        return restored + appended.size();
+    }
+
+    @Override
+    public void clear() {
+        restored = 0;
+        appended.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The mapping is shared, as it is never modified.
+     */
+    @Override
+    public ScrollbackStore snapshot() {
+        return withAppended(appended.snapshot());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The restored lines are not counted, as they are kept by the page cache of the operating system
+     * instead of the heap.
+     */
+    @Override
+    public long getMemoryUsage() {
+        return appended.getMemoryUsage();
+    }
+
+    ScrollbackStore getAppended() {
+        return appended;
+    }
+
+    /**
+     * Returns a store of the same restored lines, which keeps the lines added later in the given store.
+     *
+     * @param appended the store already containing the lines added after restoring
+     * @return the new store
+     */
+    MappedScrollbackStore withAppended(ScrollbackStore appended) {
+        MappedScrollbackStore store = new MappedScrollbackStore(segments, indexOffset, textOffset, restored, appended);
+        store.first = first;
+        return store;
+    }
+
+    /**
+     * Reads a long from the mapping. Longs never cross segments, as the index starts at an offset divisible by 8.
+     */
+    private long getLong(long offset) {
+        return segments[(int) (offset >> SessionSnapshot.SEGMENT_SHIFT)].getLong((int) (offset & (SessionSnapshot.SEGMENT_SIZE - 1)));
+    }
+
+    /**
+     * Reads bytes from the mapping, which might span multiple segments.
+     * Works on duplicates of the segments, so multiple threads can read at once.
+     */
+    private void read(long offset, byte[] bytes) {
+        int read = 0;
+        while (read < bytes.length) {
+            ByteBuffer segment = segments[(int) (offset >> SessionSnapshot.SEGMENT_SHIFT)].duplicate();
+            segment.position((int) (offset & (SessionSnapshot.SEGMENT_SIZE - 1)));
+            int length = Math.min(bytes.length - read, segment.remaining());
+            segment.get(bytes, read, length);
+            read += length;
+            offset += length;
+        }
+    }
+}
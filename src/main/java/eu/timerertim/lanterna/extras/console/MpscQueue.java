@@ -0,0 +1,63 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unbounded lock-free queue for multiple producers and a single consumer.
+ * <p>
+ * Producers never block and never retry, as adding an element only takes one atomic swap
+ * of the tail. Elements offered by the same thread are polled in the order they were offered.
+ * Only one thread at a time is allowed to poll elements.
+ * <p>
+ * A producer which was interrupted between swapping the tail and linking its element
+ * temporarily hides the elements offered after it. {@link MpscQueue#poll()} returns null in that
+ * case, so consumers have to be triggered again by producers after offering.
+ *
+ * @param <E> the type of the queued elements
+ */
+class MpscQueue<E> {
+    private final AtomicReference<Node<E>> tail; //Last linked node, swapped by the producers
+    private Node<E> head; //Node in front of the first element, only accessed by the consumer
+
+    MpscQueue() {
+        this.head = new Node<>(null);
+        this.tail = new AtomicReference<>(head);
+    }
+
+    /**
+     * Adds an element to the end of this queue. Never blocks.
+     *
+     * @param element the element to add
+     */
+    void offer(E element) {
+        Node<E> node = new Node<>(element);
+        tail.getAndSet(node).next = node;
+    }
+
+    /**
+     * Removes the first element of this queue.
+     * Must not be called by multiple threads at the same time.
+     *
+     * @return the removed element or null if there is no element available
+     */
+    E poll() {
+        Node<E> next = head.next;
+        if (next == null) {
+            return null;
+        }
+
+        E element = next.element;
+        next.element = null;
+        head = next;
+        return element;
+    }
+
+    private static class Node<E> {
+        private E element;
+        private volatile Node<E> next;
+
+        private Node(E element) {
+            this.element = element;
+        }
+    }
+}
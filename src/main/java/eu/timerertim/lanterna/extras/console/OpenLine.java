@@ -0,0 +1,218 @@
+package eu.timerertim.lanterna.extras.console;
+
+import eu.timerertim.lanterna.extras.utils.WrappingMode;
+
+import java.util.Arrays;
+
+/**
+ * The last line of the content, which is still being printed to.
+ * <p>
+ * The text is kept in a growable buffer and only the boundaries of its rows are stored.
+ * Appending text only rewraps the line from the start of its last row, as previous rows
+ * never change when text is appended. Appending k characters therefore costs O(k) instead
+ * of rewrapping the whole line. The {@code String}s of the rows are only created when requested.
+ * <p>
+ * The styles of the text are kept as attribute runs, see {@link StyleTable}. Appending text in the
+ * style of the last run only moves the end of that run.
+ */
+class OpenLine {
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private final StringBuilder text;
+    private int[] rowStarts;
+    private int[] rowEnds;
+    private String[] rows; //Rows which were already created, null if not created yet
+    private int rowCount;
+    private WrappingMode wrapping;
+    private int columns;
+    private int[] runs; //Attribute runs of the text
+    private int runCount;
+    private boolean styled; //Whether any run has a style other than the default one
+
+    // Reused arrays receiving the row boundaries while wrapping
+    private int[] wrappedStarts;
+    private int[] wrappedEnds;
+
+    OpenLine(WrappingMode wrapping, int columns) {
+        this.text = new StringBuilder();
+        this.rowStarts = new int[DEFAULT_CAPACITY];
+        this.rowEnds = new int[DEFAULT_CAPACITY];
+        this.rows = new String[DEFAULT_CAPACITY];
+        this.wrappedStarts = new int[DEFAULT_CAPACITY];
+        this.wrappedEnds = new int[DEFAULT_CAPACITY];
+        this.rowCount = 0;
+        this.runs = new int[2 * DEFAULT_CAPACITY];
+        this.runCount = 0;
+        this.styled = false;
+        this.wrapping = wrapping;
+        this.columns = columns;
+        rewrap(0);
+    }
+
+    void append(CharSequence text) {
+        append(text, StyleTable.DEFAULT);
+    }
+
+    /**
+     * Appends text in the given style.
+     *
+     * @param text  the text to append
+     * @param style the id of the style
+     */
+    void append(CharSequence text, int style) {
+        this.text.append(text);
+        addRun(style);
+        rewrap(Math.max(0, rowCount - 1));
+    }
+
+    /**
+     * Appends a range of characters in the given style without creating a {@code String} of them.
+     *
+     * @param chars  the array containing the characters to append
+     * @param offset the index of the first character to append
+     * @param length the amount of characters to append
+     * @param style  the id of the style
+     */
+    void append(char[] chars, int offset, int length, int style) {
+        this.text.append(chars, offset, length);
+        addRun(style);
+        rewrap(Math.max(0, rowCount - 1));
+    }
+
+    /**
+     * Replaces the whole line with text in the default style.
+     *
+     * @param text the new text
+     */
+    void replace(CharSequence text) {
+        this.text.setLength(0);
+        this.text.append(text);
+        runCount = 0;
+        styled = false;
+        addRun(StyleTable.DEFAULT);
+        rewrap(0);
+    }
+
+    /**
+     * Rewraps the whole line using new columns and wrapping.
+     *
+     * @param wrapping the wrapping to apply
+     * @param columns  the width to wrap the line to
+     */
+    void reflow(WrappingMode wrapping, int columns) {
+        this.wrapping = wrapping;
+        this.columns = columns;
+        rewrap(0);
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the given row, creating it if needed.
+     * <p>
+     * Rows are cut after the maximum amount of columns, which only affects lines without
+     * wrapping. This way even huge lines cost only as much as is visible of them.
+     *
+     * @param row the index of the row
+     * @return the row
+     */
+    String getRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + rowCount);
+        }
+
+        if (rows[row] == null) {
+            int end = columns > 0 ? Math.min(rowEnds[row], rowStarts[row] + columns) : rowEnds[row];
+            rows[row] = text.substring(rowStarts[row], end);
+        }
+        return rows[row];
+    }
+
+    /**
+     * Returns the attribute runs of the given row, relative to the start of the row.
+     * The row is cut the same way as by {@link OpenLine#getRow(int)}.
+     *
+     * @param row the index of the row
+     * @return the runs or null if the row is not styled
+     */
+    int[] getRowRuns(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + rowCount);
+        }
+
+        int end = columns > 0 ? Math.min(rowEnds[row], rowStarts[row] + columns) : rowEnds[row];
+        return StyleTable.slice(styled ? runs : null, runCount, rowStarts[row], end);
+    }
+
+    /**
+     * Returns a copy of the attribute runs of the whole line.
+     *
+     * @return the runs or null if the line is not styled
+     */
+    int[] getRuns() {
+        return styled ? Arrays.copyOf(runs, 2 * runCount) : null;
+    }
+
+    int length() {
+        return text.length();
+    }
+
+    /**
+     * Returns the estimated amount of memory in bytes used by this line.
+     *
+     * @return the memory usage in bytes
+     */
+    long getMemoryUsage() {
+        return 2L * text.capacity() + 8L * rowStarts.length + 4L * runs.length;
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+    /**
+     * Lets the last run end at the end of the text, starting a new run if its style differs.
+     */
+    private void addRun(int style) {
+        if (runCount > 0 && runs[2 * runCount - 1] == style) {
+            runs[2 * runCount - 2] = text.length();
+        } else if (text.length() > (runCount == 0 ? 0 : runs[2 * runCount - 2])) {
+            if (2 * runCount == runs.length) {
+                runs = Arrays.copyOf(runs, 2 * runs.length);
+            }
+            runs[2 * runCount] = text.length();
+            runs[2 * runCount + 1] = style;
+            runCount++;
+            styled |= style != StyleTable.DEFAULT;
+        }
+    }
+
+    /**
+     * Rewraps the text starting at the given row, keeping all previous rows.
+     */
+    private void rewrap(int fromRow) {
+        int start = fromRow == 0 ? 0 : rowStarts[fromRow];
+        int wrappedCount = wrapping.wrap(text, start, columns, wrappedStarts, wrappedEnds);
+        if (wrappedCount > wrappedStarts.length) {
+            wrappedStarts = new int[wrappedCount];
+            wrappedEnds = new int[wrappedCount];
+            wrapping.wrap(text, start, columns, wrappedStarts, wrappedEnds);
+        }
+
+        // Replace the rewrapped rows
+        int newRowCount = fromRow + wrappedCount;
+        if (newRowCount > rowStarts.length) {
+            int capacity = Math.max(newRowCount, 2 * rowStarts.length);
+            rowStarts = Arrays.copyOf(rowStarts, capacity);
+            rowEnds = Arrays.copyOf(rowEnds, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+        }
+        System.arraycopy(wrappedStarts, 0, rowStarts, fromRow, wrappedCount);
+        System.arraycopy(wrappedEnds, 0, rowEnds, fromRow, wrappedCount);
+        Arrays.fill(rows, fromRow, Math.max(rowCount, newRowCount), null);
+        rowCount = newRowCount;
+    }
+}
@@ -0,0 +1,154 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces render requests and executes them at most once per frame on a dedicated thread.
+ * <p>
+ * Any amount of calls to {@link RenderScheduler#requestRender()} in between two frames
+ * results in a single execution of the render task. Frames are only scheduled on demand, so an idle
+ * console does not wake its render thread at all, except while a task is set to run on every frame.
+ */
+class RenderScheduler implements Closeable {
+    private final Runnable renderTask;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean renderRequested;
+    private ScheduledFuture<?> frameTask; //Executes frames periodically while there is an everyFrameTask, null otherwise
+    private volatile Runnable everyFrameTask; //Executed on every frame in front of the render task, null if there is none
+    private volatile long lastFrame; //Start of the last frame, so requested frames keep the frame rate
+    private int frameRate;
+    private long period; //Nanoseconds in between two frames
+
+    RenderScheduler(Runnable renderTask, int frameRate) {
+        this.renderTask = renderTask;
+        this.renderRequested = new AtomicBoolean(false);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Console-Render");
+            thread.setDaemon(true);
+            return thread;
+        });
+        setFrameRate(frameRate);
+    }
+
+    /**
+     * Requests the render task to be executed on the next frame.
+     * This method never blocks.
+     */
+    void requestRender() {
+        if (request(renderRequested)) {
+            scheduleFrame();
+        }
+    }
+
+    /**
+     * Sets a flag requesting a render. The flag is read first, which avoids invalidating
+     * the cache line on every call when many threads request renders.
+     *
+     * @param requested the flag to set
+     * @return true if the flag was not set before
+     */
+    static boolean request(AtomicBoolean requested) {
+        return !requested.get() && !requested.getAndSet(true);
+    }
+
+    /**
+     * Executes the given task on the render thread after the given delay.
+     *
+     * @param task  the task to execute
+     * @param delay the delay in milliseconds
+     * @return the future of the scheduled task, which can be used to cancel it
+     */
+    ScheduledFuture<?> schedule(Runnable task, long delay) {
+        return executor.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sets a task which is executed on every frame, no matter if a render was requested.
+     * It is executed before the render task.
+     *
+     * @param task the task to execute or null to remove the current one
+     */
+    synchronized void setEveryFrameTask(Runnable task) {
+        everyFrameTask = task;
+        if (task != null && frameTask == null) {
+            frameTask = executor.scheduleAtFixedRate(this::renderFrame, period, period, TimeUnit.NANOSECONDS);
+        } else if (task == null && frameTask != null) {
+            frameTask.cancel(false);
+            frameTask = null;
+            if (renderRequested.get()) {
+                scheduleFrame(); //Requested while the periodic frames were expected to apply it
+            }
+        }
+    }
+
+    synchronized int getFrameRate() {
+        return frameRate;
+    }
+
+    /**
+     * Changes the amount of frames per second and reschedules the render task accordingly.
+     *
+     * @param frameRate the maximum amount of renders per second
+     */
+    synchronized void setFrameRate(int frameRate) {
+        if (frameRate <= 0) {
+            throw new IllegalArgumentException("Frame rate has to be positive: " + frameRate);
+        }
+
+        this.frameRate = frameRate;
+        this.period = TimeUnit.SECONDS.toNanos(1) / frameRate;
+        if (frameTask != null) {
+            frameTask.cancel(false);
+            frameTask = executor.scheduleAtFixedRate(this::renderFrame, period, period, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Schedules a single frame, at least one period after the start of the last one.
+     * Has no effect while the frames are executed periodically, as the next one applies the request.
+     */
+    private synchronized void scheduleFrame() {
+        if (frameTask == null && !executor.isShutdown()) {
+            long delay = Math.min(period, Math.max(0, lastFrame + period - System.nanoTime()));
+            try {
+                executor.schedule(this::renderFrame, delay, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // Closed in the meantime, nothing is rendered anymore
+            }
+        }
+    }
+
+    private void renderFrame() {
+        lastFrame = System.nanoTime();
+        Runnable task = everyFrameTask;
+        if (task != null) {
+            run(task);
+        }
+        if (renderRequested.getAndSet(false)) {
+            run(renderTask);
+        }
+    }
+
+    /**
+     * Runs a task of a frame, reporting its exceptions instead of passing them on.
+     * An exception would otherwise cancel the periodic frames, stopping rendering and input processing for good.
+     */
+    private static void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
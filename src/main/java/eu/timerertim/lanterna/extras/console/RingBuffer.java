@@ -0,0 +1,113 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.util.Arrays;
+
+/**
+ * Growable array based ring buffer.
+ * <p>
+ * Supports indexed access as well as adding to the end and removing from the front
+ * in O(1). The backing array only grows if the buffer is full, so a buffer whose size
+ * is kept below a limit never takes up more memory than needed for that limit.
+ *
+ * @param <E> the type of the buffered elements
+ */
+class RingBuffer<E> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] elements;
+    private int head; //Index of the first element inside the elements array
+    private int size;
+
+    RingBuffer() {
+        this.elements = new Object[DEFAULT_CAPACITY];
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Creates a copy of the given buffer. The elements themselves are not copied.
+     *
+     * @param buffer the buffer to copy
+     */
+    RingBuffer(RingBuffer<E> buffer) {
+        this.elements = new Object[Math.max(DEFAULT_CAPACITY, buffer.size)];
+        this.head = 0;
+        this.size = buffer.size;
+        for (int index = 0; index < size; index++) {
+            elements[index] = buffer.elements[buffer.physicalIndex(index)];
+        }
+    }
+
+    void add(E element) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[physicalIndex(size++)] = element;
+    }
+
+    @SuppressWarnings("unchecked")
+    E get(int index) {
+        checkIndex(index);
+        return (E) elements[physicalIndex(index)];
+    }
+
+    void set(int index, E element) {
+        checkIndex(index);
+        elements[physicalIndex(index)] = element;
+    }
+
+    E getLast() {
+        return get(size - 1);
+    }
+
+    void setLast(E element) {
+        set(size - 1, element);
+    }
+
+    /**
+     * Removes the oldest element of this buffer.
+     *
+     * @return the removed element
+     */
+    E removeFirst() {
+        E element = get(0);
+        elements[head] = null;
+        head = (head + 1) % elements.length;
+        size--;
+        return element;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        Arrays.fill(elements, null);
+        head = 0;
+        size = 0;
+    }
+
+    private int physicalIndex(int index) {
+        int physical = head + index;
+        return physical < elements.length ? physical : physical - elements.length;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void grow() {
+        Object[] grown = new Object[elements.length * 2];
+        for (int index = 0; index < size; index++) {
+            grown[index] = elements[physicalIndex(index)];
+        }
+        elements = grown;
+        head = 0;
+    }
+}
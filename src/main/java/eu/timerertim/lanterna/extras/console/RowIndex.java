@@ -0,0 +1,256 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.util.Arrays;
+
+/**
+ * Index over the amount of wrapped rows of every line.
+ * <p>
+ * The row counts are kept in a ring, so lines can be appended to the end and evicted from
+ * the front. A Fenwick tree over the slots of that ring allows mapping between rows and lines
+ * in O(log n), no matter how many lines are indexed.
+ */
+class RowIndex {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] rowCounts; //Row count of every slot, ordered like the ring
+    private int[] tree; //1-based Fenwick tree over the slots of rowCounts
+    private int head; //Slot of the first line
+    private int size;
+    private int total;
+
+    RowIndex() {
+        this.rowCounts = new int[DEFAULT_CAPACITY];
+        this.tree = new int[DEFAULT_CAPACITY + 1];
+        this.head = 0;
+        this.size = 0;
+        this.total = 0;
+    }
+
+    void add(int rows) {
+        if (size == rowCounts.length) {
+            grow();
+        }
+        size++;
+        set(size - 1, rows);
+    }
+
+    /**
+     * Appends multiple lines having the same row count at once.
+     * Grows the ring and rebuilds the tree only once instead of updating it for every line.
+     *
+     * @param lines the amount of lines to append
+     * @param rows  the row count of every appended line
+     */
+    void addAll(int lines, int rows) {
+        int capacity = rowCounts.length;
+        while (capacity < size + lines) {
+            capacity *= 2;
+        }
+        int[] grown = new int[capacity];
+        for (int line = 0; line < size; line++) {
+            grown[line] = rowCounts[slot(line)];
+        }
+        Arrays.fill(grown, size, size + lines, rows);
+        rowCounts = grown;
+        head = 0;
+        size += lines;
+        rebuildTree();
+    }
+
+    int get(int line) {
+        checkIndex(line);
+        return rowCounts[slot(line)];
+    }
+
+    void set(int line, int rows) {
+        checkIndex(line);
+        int slot = slot(line);
+        update(slot, rows - rowCounts[slot]);
+        rowCounts[slot] = rows;
+    }
+
+    /**
+     * Sets the row counts of multiple consecutive lines at once.
+     * Rebuilds the tree in linear time instead of updating it for every line.
+     *
+     * @param firstLine the index of the first line to set
+     * @param rows      the array containing the row counts
+     * @param offset    the index of the first row count inside the array
+     * @param length    the amount of lines to set
+     */
+    void setAll(int firstLine, int[] rows, int offset, int length) {
+        if (length > 0) {
+            checkIndex(firstLine);
+            checkIndex(firstLine + length - 1);
+        }
+
+        for (int line = 0; line < length; line++) {
+            rowCounts[slot(firstLine + line)] = rows[offset + line];
+        }
+        rebuildTree();
+    }
+
+    int getLast() {
+        return get(size - 1);
+    }
+
+    void setLast(int rows) {
+        set(size - 1, rows);
+    }
+
+    /**
+     * Removes the first line of this index.
+     *
+     * @return the amount of rows of the removed line
+     */
+    int removeFirst() {
+        int rows = get(0);
+        set(0, 0);
+        head = (head + 1) & (rowCounts.length - 1);
+        size--;
+        return rows;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the amount of rows of all lines.
+     *
+     * @return the total amount of rows
+     */
+    int getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the amount of rows in front of the given line, which is the index of its first row.
+     *
+     * @param line the index of the line
+     * @return the amount of rows of all previous lines
+     */
+    int getRowsBefore(int line) {
+        if (line < 0 || line > size) {
+            throw new IndexOutOfBoundsException("Index: " + line + ", Size: " + size);
+        }
+
+        int end = head + line;
+        if (end <= rowCounts.length) {
+            return prefixSum(end) - prefixSum(head);
+        } else {
+            return prefixSum(rowCounts.length) - prefixSum(head) + prefixSum(end - rowCounts.length);
+        }
+    }
+
+    /**
+     * Finds the line containing the given row.
+     *
+     * @param row the index of the row
+     * @return the index of the line or the amount of lines if the row is out of bounds
+     */
+    int findLine(int row) {
+        if (row < 0) {
+            return 0;
+        } else if (row >= total) {
+            return size;
+        }
+
+        // The lines are split in the slots from head to the end of the ring and the ones wrapped around to the start
+        int tailEnd = Math.min(head + size, rowCounts.length);
+        int tailRows = prefixSum(tailEnd) - prefixSum(head);
+        if (row < tailRows) {
+            return lowerBound(prefixSum(head) + row) - head;
+        } else {
+            return rowCounts.length - head + lowerBound(row - tailRows);
+        }
+    }
+
+    void clear() {
+        rowCounts = new int[DEFAULT_CAPACITY];
+        tree = new int[DEFAULT_CAPACITY + 1];
+        head = 0;
+        size = 0;
+        total = 0;
+    }
+
+    /**
+     * Returns the amount of memory in bytes taken up by this index.
+     *
+     * @return the memory usage in bytes
+     */
+    long getMemoryUsage() {
+        return 4L * (rowCounts.length + tree.length);
+    }
+
+    private int slot(int line) {
+        return (head + line) & (rowCounts.length - 1);
+    }
+
+    private void checkIndex(int line) {
+        if (line < 0 || line >= size) {
+            throw new IndexOutOfBoundsException("Index: " + line + ", Size: " + size);
+        }
+    }
+
+    private void update(int slot, int delta) {
+        total += delta;
+        for (int node = slot + 1; node < tree.length; node += node & -node) {
+            tree[node] += delta;
+        }
+    }
+
+    /**
+     * Returns the sum of the slots in front of the given slot.
+     */
+    private int prefixSum(int slot) {
+        int sum = 0;
+        for (int node = slot; node > 0; node -= node & -node) {
+            sum += tree[node];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the first slot whose prefix sum including itself exceeds the given amount of rows.
+     */
+    private int lowerBound(int rows) {
+        int slot = 0;
+        for (int step = Integer.highestOneBit(rowCounts.length); step > 0; step >>= 1) {
+            if (slot + step < tree.length && tree[slot + step] <= rows) {
+                slot += step;
+                rows -= tree[slot];
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the capacity and rebuilds the tree.
+     */
+    private void grow() {
+        int[] grown = new int[rowCounts.length * 2];
+        for (int line = 0; line < size; line++) {
+            grown[line] = rowCounts[slot(line)];
+        }
+        rowCounts = grown;
+        head = 0;
+        rebuildTree();
+    }
+
+    /**
+     * Builds the tree from the row counts in linear time.
+     */
+    private void rebuildTree() {
+        tree = new int[rowCounts.length + 1];
+        total = 0;
+        for (int node = 1; node < tree.length; node++) {
+            tree[node] += rowCounts[node - 1];
+            total += rowCounts[node - 1];
+            int parent = node + (node & -node);
+            if (parent < tree.length) {
+                tree[parent] += tree[node];
+            }
+        }
+    }
+}
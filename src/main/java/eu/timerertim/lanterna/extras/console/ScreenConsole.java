@@ -1,6 +1,8 @@
 package eu.timerertim.lanterna.extras.console;
 
 import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TerminalTextUtils;
 import com.googlecode.lanterna.TextColor;
 import com.googlecode.lanterna.graphics.TextGraphics;
 import com.googlecode.lanterna.input.KeyStroke;
@@ -8,15 +10,67 @@ import com.googlecode.lanterna.input.KeyType;
 import com.googlecode.lanterna.screen.Screen;
 import com.googlecode.lanterna.screen.TabBehaviour;
 import com.googlecode.lanterna.screen.TerminalScreen;
+import com.googlecode.lanterna.terminal.TerminalResizeListener;
 import com.googlecode.lanterna.terminal.swing.SwingTerminalFrame;
 import eu.timerertim.lanterna.extras.handlers.ConsoleInputListener;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
 
 public class ScreenConsole extends AbstractConsole {
+    private static final long RESIZE_DEBOUNCE = 100; //Milliseconds without resizes until all content is reflowed
+    private static final long NOT_MEASURED = Long.MIN_VALUE; //Start time of operations while no metrics listener is registered
+    private static final long CHARACTER_DELAY = TimeUnit.MILLISECONDS.toNanos(20); //Time between two characters typed out by the text animation
+
     private final Screen screen;
-    private final TextGraphics graphics;
-    //TODO: Implement autoupdating
+    private final SplitScreen split; //Split screen this console is a pane of, null if it owns the whole screen
+    private final Object screenLock; //Held while using the screen, shared by all panes of a split screen
+    private TerminalPosition position; //Top left corner of the region of the screen this console draws to
+    private TerminalSize size; //Size of that region
+    private TextGraphics graphics; //Replaced whenever the region changes
+    private final RenderScheduler renderScheduler; //Shared by all panes of a split screen
+    private final TerminalResizeListener resizeListener; //Null for panes, which are laid out by their split screen
+    final AtomicBoolean renderRequested = new AtomicBoolean(); //Whether the split screen renders this pane on its next frame
+    volatile TerminalPosition cursorPosition; //Cursor of the line read by this pane in screen coordinates, null if none
+    private final MpscQueue<StyledText> pendingOutput; //Text printed in concurrent mode which was not applied yet
+    private final ArrayDeque<StyledText> animatedOutput = new ArrayDeque<>(); //Text printed while text is animated which was not typed out completely yet
+    private int animatedChars; //Characters of the first animated text which were typed out already
+    private long nextCharacterTime; //Time the next animated character is due at
+    private ScheduledFuture<?> pendingReflow;
+    private EditBuffer input; //Input of the line currently being read, null if no line is read
+    private CompletableFuture<String> inputResult;
+    volatile boolean readingLine; //Whether a line is read, read by the split screen when the focus changes
+    private FileView fileView; //File shown in place of the content, null if no file is viewed
+    private String[] fileRows = new String[0]; //Reused array receiving the visible rows of the file
+    private Search search; //Search whose matches are highlighted, null if there is none
+    private boolean scrolledBack; //Whether the content was scrolled away from its bottom, which pauses automatic scrolling
+    private final List<Follower> followers = new CopyOnWriteArrayList<>(); //Files and channels followed until closed
+    private int unshownPrints; //Prints added to the content which were not displayed yet, done in concurrent mode or by streams
+    private long unshownWrapTime; //Time spent adding those prints to the content, only measured if any metrics listener is registered
+
+    // Render costs, only changed while holding the lock of this console
+    long cellsWritten;
+    long rowsRedrawn;
+    long refreshes;
+    private int rowsSinceRefresh;
+    private long changedSince = NOT_MEASURED; //Time the screen first changed after the last refresh
 
     /**
      * Creates a new ScreenConsole object and prepares the given {@code Screen} object.
@@ -28,6 +82,8 @@ public class ScreenConsole extends AbstractConsole {
      * <ul>
      *     <li>{@code autoScrolling} = true
      *     <li>{@code autoResize} = true
+     *     <li>{@code frameRate} = 60
+     *     <li>{@code concurrent} = false
      *     <li>{@code skipTextAnimationKey} = null -> which effectively means no text animation
      * </ul><p>
      * After this constructor has been called the screen should not be directly modified anymore. A {@code ScreenConsole}
@@ -38,21 +94,42 @@ public class ScreenConsole extends AbstractConsole {
      * @throws IOException the {@code Exception} thrown if there is an underlying IO error when starting the screen
      */
     public ScreenConsole(Screen screen, boolean autoUpdate) throws IOException {
+        this(screen, autoUpdate, false);
+    }
+
+    /**
+     * Works like {@link ScreenConsole#ScreenConsole(Screen, boolean)}, but lets the input be listened to on a
+     * virtual thread instead of a platform thread, if supported by the running Java version.
+     *
+     * @param screen        the underlying screen
+     * @param autoUpdate    the boolean describing the update behavior (comparable to auto flush)
+     * @param virtualThread whether or not to listen to the input on a virtual thread
+     * @throws IOException the {@code Exception} thrown if there is an underlying IO error when starting the screen
+     */
+    public ScreenConsole(Screen screen, boolean autoUpdate, boolean virtualThread) throws IOException {
         super(autoUpdate);
 
         // Initializes screen
         this.screen = screen;
-        contentManager = new ContentManager(screen.getTerminalSize(), wrapping);
+        this.split = null;
+        this.screenLock = this;
+        this.position = TerminalPosition.TOP_LEFT_CORNER;
+        this.size = screen.getTerminalSize();
+        contentManager = new ContentManager(size, wrapping);
         displayContent = contentManager.getDisplayContent();
-        consoleInput = new ConsoleInputListener(screen);
-        graphics = screen.newTextGraphics();
-        graphics.setForegroundColor(textColor);
-        graphics.setBackgroundColor(backgroundColor);
-        graphics.setTabBehaviour(TabBehaviour.ALIGN_TO_COLUMN_4);
+        graphics = newGraphics();
+        pendingOutput = new MpscQueue<>();
+        renderScheduler = new RenderScheduler(this::render, frameRate);
+        resizeListener = (terminal, newSize) -> resize();
+        if (screen instanceof TerminalScreen) {
+            ((TerminalScreen) screen).getTerminal().addResizeListener(resizeListener);
+        }
         screen.setCursorPosition(null);
         screen.startScreen();
         clear();
         update();
+        consoleInput = new ConsoleInputListener(screen, this, virtualThread); //Created last, as it scrolls this console from its own thread
+        consoleInput.setLossless(false); //Keys are only read while a line is read
     }
 
     /**
@@ -67,93 +144,282 @@ public class ScreenConsole extends AbstractConsole {
         this(screen, true);
     }
 
+    /**
+     * Creates a pane of a split screen, drawing to the given region of its screen.
+     * <p>
+     * The split screen starts the screen, renders the pane and passes the keys to it while it is focused,
+     * so the pane neither owns a render thread nor an input thread.
+     *
+     * @param split      the split screen this console is a pane of
+     * @param position   the top left corner of the region
+     * @param size       the size of the region, including the row used for input
+     * @param autoUpdate the boolean describing the update behavior (comparable to auto flush)
+     * @throws IOException the {@code Exception} thrown if there is an underlying IO error when drawing the pane
+     */
+    ScreenConsole(SplitScreen split, TerminalPosition position, TerminalSize size, boolean autoUpdate) throws IOException {
+        super(autoUpdate);
+
+        this.screen = split.getScreen();
+        this.split = split;
+        this.screenLock = split;
+        this.position = position;
+        this.size = size;
+        contentManager = new ContentManager(size, wrapping);
+        displayContent = contentManager.getDisplayContent();
+        graphics = newGraphics();
+        pendingOutput = new MpscQueue<>();
+        renderScheduler = split.getRenderScheduler();
+        resizeListener = null;
+        clear();
+        update();
+    }
+
     @Override
     public void print(String text) {
-        String[] lines = text.split("\n", 2);
-        if (lines.length > 1) {
-            println(lines[0]);
-            print(lines[1]);
+        print(text, null);
+    }
+
+    @Override
+    public void println(String line) {
+        println(line, null);
+    }
+
+    @Override
+    public void print(String text, TextStyle style) {
+        if (isTextAnimated()) {
+            animate(new StyledText(text, style));
+        } else if (concurrent) {
+            pendingOutput.offer(new StyledText(text, style));
+            requestRender();
         } else {
-            // Print logic goes here
-            // Carriage return special character handling
-            String[] carriage = text.split("\r");
-            if (carriage.length > 1) {
-                contentManager.replaceLine("");
-                text = carriage[carriage.length - 1];
+            synchronized (this) {
+                applyPendingOutput();
+                long start = startMeasuring();
+                write(text, style);
+                showContent(start, 1);
             }
-
-            // Main print function
-            contentManager.appendLine(text);
-            contentManager.fillDisplayContent(scrollPosition);
-            redrawFull();
         }
     }
 
     @Override
-    public void println(String line) {
-        print(line);
-        contentManager.addLine("");
+    public void println(String line, TextStyle style) {
+        if (isTextAnimated()) {
+            animate(new StyledText(line + "\n", style));
+        } else if (concurrent) {
+            // Enqueued as a whole, so the line can not be split by the output of other threads
+            pendingOutput.offer(new StyledText(line + "\n", style));
+            requestRender();
+        } else {
+            synchronized (this) {
+                applyPendingOutput();
+                long start = startMeasuring();
+                writeLine(line, style);
+                showContent(start, 1);
+            }
+        }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This is the blocking version of {@link ScreenConsole#readLineAsync()}. Returns null
+     * if the calling thread is interrupted while waiting for the input.
+     */
     @Override
     public String readLine() {
-        StringBuilder input = new StringBuilder();
-        int selectedPos = 0;
-        KeyStroke key;
+        CompletableFuture<String> result = readLineAsync();
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
 
-        // Read user input
-        screen.setCursorPosition(new TerminalPosition(readLinePrompt.length(), screen.getTerminalSize().getRows()));
-        clearInputLine(true);
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The keys are applied by the render thread once per frame. All keys made in between two
+     * frames are applied before the input line is drawn again, so pasting text or typing fast only
+     * refreshes the console once per frame.
+     */
+    @Override
+    public synchronized CompletableFuture<String> readLineAsync() {
+        if (inputResult != null) {
+            throw new IllegalStateException("A line is already being read");
+        }
+
+        input = new EditBuffer();
+        inputResult = new CompletableFuture<>();
+        setReadingLine(true);
+        drawInputLine();
+        if (split == null) {
+            renderScheduler.setEveryFrameTask(this::processInput); //The split screen processes the input of the focused pane itself
+        }
         try {
             update();
-            while ((key = consoleInput.readInput()).getKeyType() != KeyType.Enter) {
-                if (key.getKeyType() == KeyType.Character) {
-                    input.insert(selectedPos++, key.getCharacter());
-                } else if (key.getKeyType() == KeyType.Backspace && selectedPos > 0) {
-                    input.deleteCharAt(--selectedPos);
-                } else if (key.getKeyType() == KeyType.Delete && selectedPos < input.length()) {
-                    input.deleteCharAt(selectedPos);
-                } else if (key.getKeyType() == KeyType.ArrowLeft && selectedPos > 0) {
-                    selectedPos--;
-                } else if (key.getKeyType() == KeyType.ArrowRight && selectedPos < input.length()) {
-                    selectedPos++;
-                }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return inputResult;
+    }
 
-                // Give user feedback
-                String inputLine = readLinePrompt + input.toString();
-                int offset = ((selectedPos + readLinePrompt.length()) / screen.getTerminalSize().getColumns()) * screen.getTerminalSize().getColumns();
-                drawLine(inputLine.substring(offset), screen.getTerminalSize().getRows() - 1);
-                screen.setCursorPosition(screen.getCursorPosition().withColumn(readLinePrompt.length() + selectedPos - offset));
-                update();
+    @Override
+    public Writer newWriter() {
+        return new ConsoleWriter(this);
+    }
+
+    @Override
+    public OutputStream newOutputStream(Charset charset) {
+        return new ConsoleOutputStream(this, charset);
+    }
+
+    @Override
+    public PrintStream newPrintStream() {
+        try {
+            return new PrintStream(newOutputStream(StandardCharsets.UTF_8), true, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e); //UTF-8 is always supported
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Closes the file currently viewed, if there is one.
+     */
+    @Override
+    public synchronized FileView viewFile(Path file, Charset charset) throws IOException {
+        MappedFile mappedFile = new MappedFile(file, charset);
+        if (fileView != null) {
+            fileView.close();
+        }
+        fileView = new FileView(this, mappedFile);
+        showFileView();
+        return fileView;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the index of the lines is copied while holding the lock of this console,
+     * so printing continues while the snapshot is written.
+     */
+    @Override
+    public void saveSnapshot(Path file) throws IOException {
+        SessionSnapshot snapshot;
+        synchronized (this) {
+            applyPendingOutput();
+            skipTextAnimation();
+            snapshot = contentManager.snapshot();
+        }
+        snapshot.write(file);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The current search is repeated on the restored lines.
+     */
+    @Override
+    public void restoreSnapshot(Path file) throws IOException {
+        SessionSnapshot snapshot = SessionSnapshot.read(file);
+        synchronized (this) {
+            applyPendingOutput();
+            finishAnimation();
+            contentManager.restore(snapshot);
+            if (search != null) {
+                contentManager.search(search);
             }
+            scrollPosition = 0;
+            scrolledBack = false;
+            reflow();
+        }
+    }
 
-            // Reset line
-            clearInputLine(false);
-            update();
-        } catch (IOException ex) {
-            return null;
-        } finally {
-            screen.setCursorPosition(null);
+    @Override
+    public synchronized void scrollTo(int line) {
+        if (fileView != null) {
+            fileView.scrollToLine(line);
+        } else {
+            applyPendingOutput();
+            scrollToRow(contentManager.getFirstRowOf(Math.max(0, Math.min(line, contentManager.getLineCount() - 1))));
         }
+    }
 
-        // Return string
-        return input.toString();
+    @Override
+    public synchronized void scrollBy(int rows) {
+        if (fileView != null) {
+            fileView.scrollBy(rows);
+        } else {
+            applyPendingOutput();
+            scrollToRow((long) scrollPosition + rows);
+        }
     }
 
     @Override
-    public void update() throws IOException {
-        screen.refresh(Screen.RefreshType.AUTOMATIC);
+    public synchronized void scrollToBottom() {
+        if (fileView != null) {
+            fileView.scrollToLine(Long.MAX_VALUE);
+        } else {
+            applyPendingOutput();
+            scrollToRow(Long.MAX_VALUE);
+        }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Closes the current search, if there is one.
+     */
     @Override
-    public void updateFull() throws IOException {
+    public synchronized Search search(String text) {
+        return startSearch(new Search(this, text, null));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Closes the current search, if there is one.
+     */
+    @Override
+    public synchronized Search search(Pattern pattern) {
+        return startSearch(new Search(this, null, pattern));
+    }
+
+    @Override
+    public Follower follow(Path file, Charset charset) throws IOException {
+        return startFollower(new Follower(this, file, charset));
+    }
+
+    @Override
+    public Follower follow(ReadableByteChannel channel, Charset charset) {
+        return startFollower(new Follower(this, channel, charset));
+    }
+
+    @Override
+    public synchronized void update() throws IOException {
+        applyPendingOutput();
+        refresh(Screen.RefreshType.AUTOMATIC);
+    }
+
+    @Override
+    public synchronized void updateFull() throws IOException {
+        applyPendingOutput();
         redrawFull();
-        screen.refresh(Screen.RefreshType.COMPLETE);
+        refresh(Screen.RefreshType.COMPLETE);
     }
 
     @Override
-    public void clear() {
+    public synchronized void clear() {
+        applyPendingOutput();
+        finishAnimation();
         contentManager.clear();
+        scrollPosition = 0;
+        scrolledBack = false;
 
         if (autoUpdate) {
             try {
@@ -176,9 +442,38 @@ public class ScreenConsole extends AbstractConsole {
     @Override
     public void close() {
         if (!closed) {
-            stopScreen();
-            consoleInput.close();
+            if (split == null) {
+                if (screen instanceof TerminalScreen) {
+                    ((TerminalScreen) screen).getTerminal().removeResizeListener(resizeListener);
+                }
+                renderScheduler.close();
+            }
+            for (Follower follower : followers) {
+                follower.close();
+            }
+            synchronized (this) {
+                if (fileView != null) {
+                    fileView.close();
+                }
+                animatedOutput.clear();
+                TextAnimator.getInstance().stop(this);
+            }
+            if (split == null) {
+                stopScreen();
+                consoleInput.close();
+            }
             closed = true;
+
+            // Let the line currently being read know that there will not be any input
+            CompletableFuture<String> result;
+            synchronized (this) {
+                result = inputResult;
+                input = null;
+                inputResult = null;
+            }
+            if (result != null) {
+                result.complete(null);
+            }
         }
     }
 
@@ -187,8 +482,14 @@ public class ScreenConsole extends AbstractConsole {
      * <p>
      * This is an alternative for calling {@link Screen#stopScreen} on the underlying screen directly.
      * Useful for cases in which you do not have a reference to the original screen anymore.
+     *
+     * @throws IllegalStateException if this console is a pane of a {@link SplitScreen}, which shares its screen with
+     *                               the other panes and is stopped by closing the split screen
      */
     public void stopScreen() {
+        if (split != null) {
+            throw new IllegalStateException("The screen of a pane is stopped by closing its split screen");
+        }
         try {
             consoleInput.close();
             screen.close();
@@ -205,27 +506,798 @@ public class ScreenConsole extends AbstractConsole {
     }
 
     @Override
-    public void setTextColor(TextColor textColor) {
+    public void setFrameRate(int frameRate) {
+        super.setFrameRate(frameRate);
+        renderScheduler.setFrameRate(frameRate);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The printed text is applied by the render thread of this console.
+     */
+    @Override
+    public synchronized void setConcurrent(boolean concurrent) {
+        super.setConcurrent(concurrent);
+        if (!concurrent) {
+            applyPendingOutput();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The text is typed out by a timer thread shared by all consoles.
+     */
+    @Override
+    public synchronized void setSkipTextAnimationKey(KeyType skipTextAnimationKey) {
+        super.setSkipTextAnimationKey(skipTextAnimationKey);
+        if (skipTextAnimationKey == null) {
+            skipTextAnimation();
+        }
+    }
+
+    @Override
+    public synchronized boolean skipTextAnimation() {
+        if (animatedOutput.isEmpty()) {
+            return false;
+        }
+
+        long start = startMeasuring();
+        showContent(start, finishAnimation());
+        return true;
+    }
+
+    @Override
+    public synchronized void setScrollbackLimit(int lines) {
+        super.setScrollbackLimit(lines);
+        updateScrollPosition();
+        fillDisplayContent();
+        redraw();
+        requestAutoUpdate();
+    }
+
+    @Override
+    public synchronized long getScrollbackMemoryUsage() {
+        return super.getScrollbackMemoryUsage();
+    }
+
+    @Override
+    public synchronized boolean isCompactScrollback() {
+        return super.isCompactScrollback();
+    }
+
+    @Override
+    public synchronized void setCompactScrollback(boolean compact) {
+        super.setCompactScrollback(compact);
+    }
+
+    @Override
+    public synchronized boolean isSearchIndexed() {
+        return super.isSearchIndexed();
+    }
+
+    @Override
+    public synchronized void setSearchIndexed(boolean indexed) {
+        super.setSearchIndexed(indexed);
+    }
+
+    @Override
+    public synchronized void setTextColor(TextColor textColor) {
         this.textColor = textColor;
         graphics.setForegroundColor(textColor);
         redrawFull();
+        requestAutoUpdate();
     }
 
     @Override
-    public void setBackgroundColor(TextColor backgroundColor) {
+    public synchronized void setBackgroundColor(TextColor backgroundColor) {
         this.backgroundColor = backgroundColor;
         graphics.setBackgroundColor(backgroundColor);
         redrawFull();
+        requestAutoUpdate();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The visible content is rewrapped immediately, while the rest of it is
+     * rewrapped in parallel in the background.
+     */
+    @Override
+    protected synchronized void reflow() {
+        applyPendingOutput();
+        reflowVisible(size.getColumns());
+        reflowRemaining();
+    }
+
+    /**
+     * Displays the viewed file after it was scrolled.
+     */
+    synchronized void showFileView() {
+        fillDisplayContent();
+        redraw();
+        requestAutoUpdate();
+    }
+
+    /**
+     * Shows the content again, if the given view is the one currently shown.
+     */
+    synchronized void closeFileView(FileView view) {
+        if (fileView == view) {
+            fileView = null;
+            updateScrollPosition();
+            showFileView();
+        }
+    }
+
+    /**
+     * Scrolls to the given match if it is not visible, showing it in the middle of the console.
+     */
+    synchronized void showMatch(long lineNumber, int start) {
+        int row = contentManager.getRowOf(lineNumber, start);
+        if (row < scrollPosition || row >= scrollPosition + displayContent.length) {
+            int previousScrollPosition = scrollPosition;
+            scrollPosition = Math.max(0, Math.min(row - displayContent.length / 2, getBottomRow()));
+            scrollDrawnRows(scrollPosition - previousScrollPosition);
+        }
+        contentManager.updateHighlighting();
+        fillDisplayContent();
+        redraw();
+        requestAutoUpdate();
+    }
+
+    /**
+     * Removes the highlighting, if the given search is the current one.
+     */
+    synchronized void closeSearch(Search search) {
+        if (this.search == search) {
+            this.search = null;
+            contentManager.search(null);
+            updateScrollPosition();
+            fillDisplayContent();
+            redraw();
+            requestAutoUpdate();
+        }
+    }
+
+    void removeFollower(Follower follower) {
+        followers.remove(follower);
+    }
+
+    private Search startSearch(Search search) {
+        applyPendingOutput();
+        if (this.search != null) {
+            this.search.close();
+        }
+        this.search = search;
+        contentManager.search(search);
+        fillDisplayContent();
+        redraw();
+        requestAutoUpdate();
+        return search;
+    }
+
+    private Follower startFollower(Follower follower) {
+        followers.add(follower);
+        follower.start();
+        return follower;
+    }
+
+    int getColumns() {
+        return size.getColumns();
+    }
+
+    @Override
+    public synchronized int getVisibleRows() {
+        return displayContent.length;
+    }
+
+    /**
+     * Applies a pending resize of the underlying screen.
+     */
+    private synchronized void resize() {
+        TerminalSize size = screen.doResizeIfNecessary();
+        if (size != null) {
+            applySize(size);
+        }
+    }
+
+    /**
+     * Moves this pane to another region of the screen of its split screen.
+     *
+     * @param position the top left corner of the region
+     * @param size     the size of the region, including the row used for input
+     */
+    synchronized void setRegion(TerminalPosition position, TerminalSize size) {
+        this.position = position;
+        graphics = newGraphics();
+        applySize(size);
+    }
+
+    /**
+     * Adapts the displayContent to a new size and redraws the whole console.
+     * <p>
+     * The visible content is reflowed immediately if {@code autoResize} is enabled. Reflowing the rest
+     * of the content is delayed until no further resizes happen for {@value #RESIZE_DEBOUNCE} milliseconds,
+     * so a burst of resizes only leads to one full reflow.
+     */
+    private void applySize(TerminalSize size) {
+        this.size = size;
+        contentManager.resize(size);
+        displayContent = contentManager.getDisplayContent();
+        if (autoResize) {
+            reflowVisible(size.getColumns());
+            if (pendingReflow != null) {
+                pendingReflow.cancel(false);
+            }
+            pendingReflow = renderScheduler.schedule(this::reflowRemaining, RESIZE_DEBOUNCE);
+        } else {
+            updateScrollPosition();
+            fillDisplayContent();
+            redrawFull();
+            requestAutoUpdate();
+        }
+    }
+
+    /**
+     * Rewraps the visible content, keeping the first visible line at the top of the console.
+     */
+    private void reflowVisible(int columns) {
+        long start = startMeasuring();
+        int firstVisibleLine = contentManager.getLineAt(scrollPosition);
+        contentManager.reflowVisible(columns, wrapping, firstVisibleLine);
+        scrollPosition = contentManager.getFirstRowOf(firstVisibleLine);
+        updateScrollPosition();
+        fillDisplayContent();
+        measureReflow(start);
+        redrawFull();
+        requestAutoUpdate();
+    }
+
+    private synchronized void reflowRemaining() {
+        contentManager.reflowRemaining().thenAccept(this::applyReflow);
+    }
+
+    /**
+     * Applies the row counts calculated in the background, keeping the first visible line at the top of the console.
+     */
+    private synchronized void applyReflow(Runnable reflow) {
+        if (!closed) {
+            long start = startMeasuring();
+            int firstVisibleLine = contentManager.getLineAt(scrollPosition);
+            reflow.run();
+            scrollPosition = contentManager.getFirstRowOf(firstVisibleLine);
+            updateScrollPosition();
+            fillDisplayContent();
+            measureReflow(start);
+            redraw();
+            requestAutoUpdate();
+        }
+    }
+
+    /**
+     * Adds the text to the content without displaying it.
+     */
+    private void write(String text, TextStyle style) {
+        String[] lines = text.split("\n", 2);
+        if (lines.length > 1) {
+            writeLine(lines[0], style);
+            write(lines[1], style);
+        } else {
+            // Carriage return special character handling
+            String[] carriage = text.split("\r");
+            if (carriage.length > 1) {
+                contentManager.replaceLine("");
+                text = carriage[carriage.length - 1];
+            }
+
+            contentManager.appendLine(text, style);
+        }
+    }
+
+    private void writeLine(String line, TextStyle style) {
+        write(line, style);
+        contentManager.addLine("");
+    }
+
+    /**
+     * Adds text written to a stream of this console to the content.
+     * <p>
+     * The text is only displayed by the render thread once per frame, so streams written to in many small
+     * pieces do not display the content again for every piece.
+     *
+     * @param parser the parser of the stream, keeping the state of escape sequences in between writes
+     * @param chars  the array containing the text
+     * @param offset the index of the first character
+     * @param length the amount of characters
+     */
+    synchronized void ingest(AnsiParser parser, char[] chars, int offset, int length) {
+        drainPendingOutput();
+        long start = startMeasuring();
+        unshownPrints += finishAnimation();
+        parser.parse(chars, offset, length, contentManager);
+        unshownPrints++;
+        measureUnshown(start);
+        requestRender();
+    }
+
+    /**
+     * Transfers the viewed file or otherwise the content to the displayContent.
+     */
+    private void fillDisplayContent() {
+        if (fileView != null) {
+            fileView.fillRows(fileRows.length == displayContent.length ? fileRows : (fileRows = new String[displayContent.length]));
+            contentManager.fillDisplayContent(fileRows);
+        } else {
+            contentManager.fillDisplayContent(scrollPosition);
+        }
+    }
+
+    /**
+     * Displays the changes of the content.
+     *
+     * @param start  the time adding the printed text to the content started at
+     * @param prints the amount of print operations which changed the content
+     */
+    private void showContent(long start, int prints) {
+        scrollDrawnRows(updateScrollPosition());
+        fillDisplayContent();
+        if (start != NOT_MEASURED) {
+            long wrapTime = System.nanoTime() - start;
+            for (ConsoleMetricsListener listener : metricsListeners) {
+                listener.onPrint(prints, wrapTime);
+            }
+        }
+        redraw();
+        requestAutoUpdate();
+    }
+
+    /**
+     * Adds all text printed in concurrent mode to the content and displays it once,
+     * together with the text written to streams which was not displayed yet.
+     */
+    private synchronized void applyPendingOutput() {
+        drainPendingOutput();
+        if (unshownPrints > 0) {
+            long start = startMeasuring();
+            if (start != NOT_MEASURED) {
+                start -= unshownWrapTime;
+            }
+            int prints = unshownPrints;
+            unshownPrints = 0;
+            unshownWrapTime = 0;
+            showContent(start, prints);
+        }
+    }
+
+    /**
+     * Queues printed text to be typed out by the {@link TextAnimator}, after all text printed before.
+     */
+    private synchronized void animate(StyledText text) {
+        applyPendingOutput();
+        if (animatedOutput.isEmpty()) {
+            nextCharacterTime = System.nanoTime();
+            TextAnimator.getInstance().start(this);
+        }
+        animatedOutput.add(text);
+    }
+
+    /**
+     * Types out all animated characters which are due and displays them at once.
+     * Called by the {@link TextAnimator} on every tick while text is waiting to be animated.
+     *
+     * @param now the time of the tick
+     */
+    synchronized void advanceAnimation(long now) {
+        if (!isTextAnimated()) {
+            // The animation was deactivated while text was being queued
+            skipTextAnimation();
+            return;
+        }
+
+        long start = startMeasuring();
+        int prints = 0;
+        boolean written = false;
+        while (!animatedOutput.isEmpty() && nextCharacterTime <= now) {
+            StyledText text = animatedOutput.peek();
+            long due = (now - nextCharacterTime) / CHARACTER_DELAY + 1;
+            int end = (int) Math.min(text.text.length(), animatedChars + due);
+            char last = end > animatedChars ? text.text.charAt(end - 1) : 0;
+            if (end < text.text.length() && (last == '\r' || Character.isHighSurrogate(last))) {
+                // Typed out together with the following character, as a trailing carriage return would be lost
+                end++;
+            }
+
+            write(text.text.substring(animatedChars, end), text.style);
+            nextCharacterTime += (end - animatedChars) * CHARACTER_DELAY;
+            written = true;
+            if (end == text.text.length()) {
+                animatedOutput.poll();
+                animatedChars = 0;
+                prints++;
+            } else {
+                animatedChars = end;
+            }
+        }
+
+        if (written) {
+            showContent(start, prints);
+        }
+        if (animatedOutput.isEmpty()) {
+            TextAnimator.getInstance().stop(this);
+        }
+    }
+
+    /**
+     * Adds all text still waiting to be animated to the content without displaying it.
+     *
+     * @return the amount of print operations which were not typed out completely
+     */
+    private int finishAnimation() {
+        if (animatedOutput.isEmpty()) {
+            return 0;
+        }
+
+        int prints = animatedOutput.size();
+        StyledText text;
+        while ((text = animatedOutput.poll()) != null) {
+            write(text.text.substring(animatedChars), text.style);
+            animatedChars = 0;
+        }
+        TextAnimator.getInstance().stop(this);
+        return prints;
+    }
+
+    /**
+     * Adds all text printed in concurrent mode to the content without displaying it.
+     * This is the only place the text is taken out of the queue, the lock makes sure only one thread does at a time.
+     */
+    private void drainPendingOutput() {
+        StyledText text = pendingOutput.poll();
+        if (text != null) {
+            long start = startMeasuring();
+            do {
+                write(text.text, text.style);
+                unshownPrints++;
+            } while ((text = pendingOutput.poll()) != null);
+            measureUnshown(start);
+        }
+    }
+
+    /**
+     * Refreshes the screen, reporting the refresh to the metrics listeners.
+     */
+    private void refresh(Screen.RefreshType type) throws IOException {
+        long start = startMeasuring();
+        if (split != null) {
+            split.refresh(type);
+        } else {
+            screen.refresh(type);
+        }
+        refreshed(start);
+    }
+
+    /**
+     * Counts a refresh of the screen showing the changes of this console and reports it to the metrics listeners.
+     *
+     * @param start the time the refresh started at or {@code NOT_MEASURED}
+     */
+    synchronized void refreshed(long start) {
+        refreshes++;
+        if (start != NOT_MEASURED) {
+            long end = System.nanoTime();
+            long frameLatency = end - (changedSince != NOT_MEASURED ? changedSince : start);
+            for (ConsoleMetricsListener listener : metricsListeners) {
+                listener.onRefresh(end - start, frameLatency, rowsSinceRefresh);
+            }
+        }
+        rowsSinceRefresh = 0;
+        changedSince = NOT_MEASURED;
+    }
+
+    /**
+     * Returns the current time if any metrics listener is registered.
+     *
+     * @return the current time or {@code NOT_MEASURED} if nothing is measured
+     */
+    private long startMeasuring() {
+        return metricsListeners.length != 0 ? System.nanoTime() : NOT_MEASURED;
+    }
+
+    private void measureUnshown(long start) {
+        if (start != NOT_MEASURED) {
+            unshownWrapTime += System.nanoTime() - start;
+        }
+    }
+
+    private void measureReflow(long start) {
+        if (start != NOT_MEASURED) {
+            long wrapTime = System.nanoTime() - start;
+            for (ConsoleMetricsListener listener : metricsListeners) {
+                listener.onReflow(wrapTime);
+            }
+        }
+    }
+
+    /**
+     * Keeps the scrolling position pointing at the same content after the oldest rows were evicted
+     * and follows the bottom of the content if {@code autoScrolling} is enabled.
+     *
+     * @return the amount of rows the shown content moved up, negative if it moved down
+     */
+    private int updateScrollPosition() {
+        int previousScrollPosition = scrollPosition - contentManager.pollEvictedRows(); //Might be negative if shown rows were evicted
+        scrollPosition = Math.max(0, previousScrollPosition);
+        if (autoScrolling && !scrolledBack && (search == null || !search.hasCurrentMatch())) {
+            scrollPosition = getBottomRow();
+        }
+        return scrollPosition - previousScrollPosition;
+    }
+
+    /**
+     * Returns the scrolling position showing the last row of the content at the bottom of the console.
+     *
+     * @return the index of the row at the top of the console
+     */
+    private int getBottomRow() {
+        return Math.max(0, contentManager.getRowCount() - displayContent.length);
+    }
+
+    /**
+     * Scrolls the content to show the given row at the top of the console, or as near to it as possible.
+     * Finding the line containing the row only costs O(log n), so jumps cost the same no matter how far they are.
+     * Automatic scrolling is paused unless the bottom of the content is shown.
+     */
+    private void scrollToRow(long row) {
+        int bottom = getBottomRow();
+        int previousScrollPosition = scrollPosition;
+        scrollPosition = (int) Math.max(0, Math.min(row, bottom));
+        scrolledBack = scrollPosition < bottom;
+        scrollDrawnRows(scrollPosition - previousScrollPosition);
+        fillDisplayContent();
+        redraw();
+        requestAutoUpdate();
+    }
+
+    /**
+     * Scrolls the rows already drawn instead of drawing them again at their new position, so the screen can let
+     * the terminal scroll its lines and only send the rows moved into view. Over slow connections this is
+     * a lot faster than sending every row again. Has no effect if every row moves out of view.
+     *
+     * @param distance the amount of rows to scroll up, negative to scroll down
+     */
+    private void scrollDrawnRows(int distance) {
+        if (distance != 0 && Math.abs(distance) < displayContent.length && fileView == null) {
+            contentManager.scrollDisplayContent(distance);
+            try {
+                synchronized (screenLock) {
+                    screen.scrollLines(position.getRow(), position.getRow() + displayContent.length - 1, distance);
+                }
+            } catch (IOException e) {
+                contentManager.markAllDirty(); //The screen might not match the displayContent anymore
+            }
+        }
+    }
+
+    /**
+     * Lets the render thread update the console on its next frame if {@code autoUpdate} is enabled.
+     */
+    private void requestAutoUpdate() {
+        if (autoUpdate) {
+            requestRender();
+        }
+    }
+
+    /**
+     * Lets the render thread apply the changes of this console on its next frame.
+     */
+    private void requestRender() {
+        if (split != null) {
+            RenderScheduler.request(renderRequested);
+        }
+        renderScheduler.requestRender();
+    }
+
+    /**
+     * The task executed by the render thread.
+     * Also applies the text printed in concurrent mode, even if {@code autoUpdate} is disabled.
+     */
+    private void render() {
+        if (autoUpdate) {
+            try {
+                update();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        } else {
+            applyPendingOutput();
+        }
+    }
+
+    /**
+     * The part of the task executed by the render thread of a split screen for this pane,
+     * which refreshes the screen once for all panes afterwards.
+     *
+     * @return true if the screen should be refreshed, which is the case if {@code autoUpdate} is enabled
+     */
+    synchronized boolean renderPane() {
+        applyPendingOutput();
+        return autoUpdate;
+    }
+
+    /**
+     * Applies the keys made since the last frame to the line being read.
+     * The future of the line is completed outside of the lock, as it executes the actions depending on it.
+     */
+    void processInput() {
+        CompletableFuture<String> result;
+        String line;
+        synchronized (this) {
+            if (inputResult == null) {
+                return;
+            }
+
+            boolean changed = false;
+            boolean confirmed = inputResult.isDone(); //The future was cancelled
+            long inputTime = 0; //Time the first applied key was received at
+            try {
+                KeyStroke key;
+                while (!confirmed && (key = consoleInput.pollInput()) != null) {
+                    if (!changed) {
+                        inputTime = consoleInput.getInputTime();
+                    }
+                    confirmed = edit(input, key);
+                    changed = true;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+
+            if (confirmed) {
+                result = inputResult;
+                line = input.toString();
+                input = null;
+                inputResult = null;
+                setReadingLine(false);
+                if (split == null) {
+                    renderScheduler.setEveryFrameTask(null);
+                }
+                setCursorPosition(null);
+            } else if (!changed) {
+                return;
+            } else {
+                result = null;
+                line = null;
+            }
+
+            // Give user feedback
+            drawInputLine();
+            try {
+                update();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            if (changed && metricsListeners.length != 0) {
+                long latency = System.nanoTime() - inputTime;
+                for (ConsoleMetricsListener listener : metricsListeners) {
+                    listener.onInputEcho(latency);
+                }
+            }
+        }
+
+        if (result != null) {
+            result.complete(line);
+        }
+    }
+
+    /**
+     * Lets the input listener keep every unread key only while a line is read. Otherwise no one takes the keys out of
+     * its buffer, so it would wait for free space instead of handling the scrolling and skip keys once it is full.
+     */
+    private void setReadingLine(boolean reading) {
+        readingLine = reading;
+        if (split == null) {
+            consoleInput.setLossless(reading);
+        } else {
+            split.updateLossless();
+        }
+    }
+
+    /**
+     * Applies a key to the line being read.
+     *
+     * @return true if the input was confirmed
+     */
+    private static boolean edit(EditBuffer input, KeyStroke key) {
+        if (key.getKeyType() == KeyType.Enter) {
+            return true;
+        } else if (key.getKeyType() == KeyType.Character) {
+            input.insert(key.getCharacter());
+        } else if (key.getKeyType() == KeyType.Backspace) {
+            input.deleteBackward();
+        } else if (key.getKeyType() == KeyType.Delete) {
+            input.deleteForward();
+        } else if (key.getKeyType() == KeyType.ArrowLeft) {
+            input.moveLeft();
+        } else if (key.getKeyType() == KeyType.ArrowRight) {
+            input.moveRight();
+        }
+        return false;
+    }
+
+    /**
+     * Draws the part of the prompt and input containing the cursor, without building the whole line.
+     * Clears the input line if no line is being read.
+     */
+    private void drawInputLine() {
+        if (input == null) {
+            drawLine("", displayContent.length);
+            return;
+        }
+
+        int columns = size.getColumns();
+        int cursor = readLinePrompt.length() + input.getCursor();
+        int offset = (cursor / columns) * columns;
+        int end = Math.min(offset + columns, readLinePrompt.length() + input.length());
+
+        StringBuilder visible = new StringBuilder(columns);
+        for (int index = offset; index < end; index++) {
+            visible.append(index < readLinePrompt.length() ? readLinePrompt.charAt(index) : input.charAt(index - readLinePrompt.length()));
+        }
+        drawLine(visible.toString(), displayContent.length);
+        setCursorPosition(new TerminalPosition(cursor - offset, displayContent.length));
+    }
+
+    /**
+     * Shows the cursor at the given position of this console. The cursor of a pane is only shown while it is focused.
+     *
+     * @param cursor the position relative to the region of this console, null to hide the cursor
+     */
+    private void setCursorPosition(TerminalPosition cursor) {
+        if (split != null) {
+            cursorPosition = cursor != null ? cursor.withRelative(position.getColumn(), position.getRow()) : null;
+        } else {
+            screen.setCursorPosition(cursor);
+        }
     }
 
     private void drawLine(String line, int row) {
+        drawLine(line, null, row);
+    }
+
+    /**
+     * Draws a row, using one call per attribute run. The rest of the row is filled in the default style.
+     */
+    private void drawLine(String line, int[] runs, int row) {
         // Check for null value
         if (line == null) {
             line = "";
         }
 
+        synchronized (screenLock) {
+            putLine(line, runs, row);
+        }
+    }
+
+    private void putLine(String line, int[] runs, int row) {
+        // Draw the styled parts of the line
+        int column = 0;
+        if (runs != null) {
+            int start = 0;
+            for (int run = 0; run < runs.length; run += 2) {
+                String part = line.substring(start, runs[run]);
+                applyStyle(contentManager.getStyle(runs[run + 1]));
+                graphics.putString(column, row, part);
+                column += TerminalTextUtils.getColumnWidth(part);
+                start = runs[run];
+            }
+            applyStyle(TextStyle.DEFAULT);
+            line = "";
+        }
+
         // Generate empty spaces needed for filling up the line
-        int emptySpace = screen.getTerminalSize().getColumns() - line.length();
+        int emptySpace = size.getColumns() - column - line.length();
         String emptySpaces;
         if (emptySpace > 0)
             emptySpaces = String.format("%1$" + emptySpace + "s", " ");
@@ -234,17 +1306,63 @@ public class ScreenConsole extends AbstractConsole {
         }
 
         // Actually print line
-        graphics.putString(0, row, line + emptySpaces);
+        graphics.putString(column, row, line + emptySpaces);
+        cellsWritten += column + line.length() + emptySpaces.length();
+        rowsRedrawn++;
+        rowsSinceRefresh++;
+        if (changedSince == NOT_MEASURED && metricsListeners.length != 0) {
+            changedSince = System.nanoTime();
+        }
     }
 
-    private void redrawFull() {
-        for (int row = 0; row < displayContent.length; row++) {
-            drawLine(displayContent[row], row);
+    /**
+     * Creates the graphics drawing to the region of this console.
+     */
+    private TextGraphics newGraphics() {
+        TextGraphics graphics = screen.newTextGraphics();
+        if (split != null) {
+            graphics = graphics.newTextGraphics(position, size);
         }
-        clearInputLine(false);
+        graphics.setForegroundColor(textColor);
+        graphics.setBackgroundColor(backgroundColor);
+        graphics.setTabBehaviour(TabBehaviour.ALIGN_TO_COLUMN_4);
+        return graphics;
+    }
+
+    /**
+     * Sets the colors and modifiers of the graphics, using the colors of the console in place of missing colors.
+     */
+    private void applyStyle(TextStyle style) {
+        graphics.setForegroundColor(style.getForeground() != null ? style.getForeground() : textColor);
+        graphics.setBackgroundColor(style.getBackground() != null ? style.getBackground() : backgroundColor);
+        graphics.setModifiers(style.getModifierSet());
     }
 
-    private void clearInputLine(boolean prompt) {
-        drawLine((prompt ? readLinePrompt : ""), displayContent.length);
+    /**
+     * Draws only the rows of the displayContent which changed since they were last drawn.
+     */
+    private void redraw() {
+        BitSet dirtyRows = contentManager.getDirtyRows();
+        int[][] displayRuns = contentManager.getDisplayRuns();
+        for (int row = dirtyRows.nextSetBit(0); row >= 0; row = dirtyRows.nextSetBit(row + 1)) {
+            drawLine(displayContent[row], displayRuns[row], row);
+        }
+        dirtyRows.clear();
+    }
+
+    private void redrawFull() {
+        contentManager.markAllDirty();
+        redraw();
+        drawInputLine();
+    }
+
+    private static class StyledText {
+        private final String text;
+        private final TextStyle style;
+
+        private StyledText(String text, TextStyle style) {
+            this.text = text;
+            this.style = style;
+        }
     }
 }
@@ -0,0 +1,37 @@
+package eu.timerertim.lanterna.extras.console;
+
+/**
+ * Storage for the completed lines of a console's history.
+ * <p>
+ * Lines can only be added to the end and removed from the front,
+ * which is everything a scrollback needs.
+ */
+interface ScrollbackStore {
+    void add(String line);
+
+    String get(int index);
+
+    /**
+     * Removes the oldest line of this store.
+     */
+    void removeFirst();
+
+    int size();
+
+    void clear();
+
+    /**
+     * Returns a copy of this store, which can safely be read by other threads
+     * while this store keeps being modified. The copy itself must not be modified.
+     *
+     * @return the snapshot of this store
+     */
+    ScrollbackStore snapshot();
+
+    /**
+     * Returns the estimated amount of memory in bytes used by this store.
+     *
+     * @return the memory usage in bytes
+     */
+    long getMemoryUsage();
+}
@@ -0,0 +1,319 @@
+package eu.timerertim.lanterna.extras.console;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TextColor;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A search of the history of a {@link Console}, created by {@link Console#search(String)} and
+ * {@link Console#search(Pattern)}.
+ * <p>
+ * The matches are highlighted until the search is closed. Moving to a match using {@link Search#next()} or
+ * {@link Search#previous()} scrolls the console to it and stops the console from following its bottom, until
+ * the search is closed. Lines printed while the search is open are searched as soon as they are completed,
+ * while the line still being printed to is not searched.
+ */
+public final class Search implements Closeable {
+    static final TextStyle HIGHLIGHT = new TextStyle(null, null, SGR.REVERSE);
+    static final TextStyle CURRENT_HIGHLIGHT = new TextStyle(TextColor.ANSI.BLACK, TextColor.ANSI.YELLOW);
+
+    private final ScreenConsole console;
+    private final String text; //Null if a pattern is searched
+    private final Pattern pattern;
+    private final long[] trigrams; //Hashes of the trigrams of the text, null if they can not be used
+    private final Matches matches; //Matches of all lines searched so far
+    private final Matches lineMatches; //Reused for finding the matches of a single line
+    private int current; //Index of the match moved to last, -1 if there is none
+    private boolean closed;
+
+    Search(ScreenConsole console, String text, Pattern pattern) {
+        if (text != null && text.isEmpty()) {
+            throw new IllegalArgumentException("The searched text must not be empty");
+        }
+        this.console = console;
+        this.text = text;
+        this.pattern = pattern;
+        this.trigrams = text != null ? SearchIndex.trigrams(text) : null;
+        this.matches = newMatches();
+        this.lineMatches = newMatches();
+        this.current = -1;
+    }
+
+    /**
+     * Returns the amount of matches found in the history of the console.
+     * Matches evicted because of the scrollback limit are not counted anymore.
+     *
+     * @return the amount of matches
+     */
+    public int getMatchCount() {
+        synchronized (console) {
+            return matches.size();
+        }
+    }
+
+    /**
+     * Returns the index of the match moved to last.
+     *
+     * @return the index of the match or -1 if no match was moved to yet or it was evicted
+     */
+    public int getCurrentMatch() {
+        synchronized (console) {
+            return current;
+        }
+    }
+
+    /**
+     * Moves to the match following the current one, or to the first match if none was moved to yet.
+     *
+     * @return false if there is no following match
+     */
+    public boolean next() {
+        synchronized (console) {
+            return moveTo(current + 1);
+        }
+    }
+
+    /**
+     * Moves to the match in front of the current one, or to the last match if none was moved to yet,
+     * which is the one printed last.
+     *
+     * @return false if there is no match in front of the current one
+     */
+    public boolean previous() {
+        synchronized (console) {
+            return moveTo(current < 0 ? matches.size() - 1 : current - 1);
+        }
+    }
+
+    /**
+     * Removes the highlighting of the matches and lets the console follow its bottom again,
+     * if automatic scrolling is enabled. Has no effect on second call.
+     */
+    @Override
+    public void close() {
+        synchronized (console) {
+            if (!closed) {
+                closed = true;
+                console.closeSearch(this);
+            }
+        }
+    }
+
+    /**
+     * Returns whether this search moved to a match, which pauses automatic scrolling.
+     *
+     * @return true if there is a current match
+     */
+    boolean hasCurrentMatch() {
+        return current >= 0;
+    }
+
+    /**
+     * Returns whether a block of lines might contain matches.
+     *
+     * @param index      the index of the lines, null if there is none
+     * @param lineNumber the absolute number of any line of the block
+     * @return false if the block can be skipped
+     */
+    boolean mightMatch(SearchIndex index, long lineNumber) {
+        return index == null || trigrams == null || index.mightContain(lineNumber, trigrams);
+    }
+
+    /**
+     * Creates an empty list of matches, which can find the matches of lines independently of this search.
+     *
+     * @return the list of matches
+     */
+    Matches newMatches() {
+        return new Matches(text, pattern != null ? pattern.matcher("") : null);
+    }
+
+    /**
+     * Adds the matches of a completed line.
+     *
+     * @param lineNumber the absolute number of the line
+     * @param line       the text of the line
+     */
+    void addLine(long lineNumber, String line) {
+        matches.find(lineNumber, line);
+    }
+
+    /**
+     * Adds the matches found in consecutive lines following the lines searched so far.
+     *
+     * @param found the matches
+     */
+    void addAll(Matches found) {
+        matches.addAll(found);
+    }
+
+    /**
+     * Removes the matches of evicted lines.
+     *
+     * @param firstLineNumber the absolute number of the first line still kept
+     */
+    void removeBefore(long firstLineNumber) {
+        int removed = matches.removeBefore(firstLineNumber);
+        current = current >= removed ? current - removed : -1;
+    }
+
+    void clear() {
+        matches.clear();
+        current = -1;
+    }
+
+    /**
+     * Overlays the attribute runs of a line with the highlighting of its matches.
+     *
+     * @param lineNumber the absolute number of the line
+     * @param line       the text of the line
+     * @param runs       the runs of the line, may be null
+     * @param styles     the table the highlighting styles are interned in
+     * @return the highlighted runs or the given runs if the line does not contain a match
+     */
+    int[] highlight(long lineNumber, String line, int[] runs, StyleTable styles) {
+        lineMatches.clear();
+        lineMatches.find(lineNumber, line);
+        if (lineMatches.size() == 0) {
+            return runs;
+        }
+
+        int[] highlighted = runs != null ? runs : new int[]{line.length(), StyleTable.DEFAULT};
+        for (int match = 0; match < lineMatches.size(); match++) {
+            int start = lineMatches.getStart(match);
+            boolean isCurrent = current >= 0 && matches.getLine(current) == lineNumber && matches.getStart(current) == start;
+            int style = styles.getId(isCurrent ? CURRENT_HIGHLIGHT : HIGHLIGHT);
+            highlighted = StyleTable.overlay(highlighted, start, lineMatches.getEnd(match), style);
+        }
+        return highlighted;
+    }
+
+    private boolean moveTo(int match) {
+        if (closed) {
+            throw new IllegalStateException("The search is closed");
+        } else if (match < 0 || match >= matches.size()) {
+            return false;
+        }
+
+        current = match;
+        console.showMatch(matches.getLine(match), matches.getStart(match));
+        return true;
+    }
+
+    /**
+     * Growable list of matches, ordered by their position. Also finds the matches of lines,
+     * so every thread searching lines in parallel uses its own list.
+     */
+    static class Matches {
+        private final String text;
+        private final Matcher matcher;
+        private long[] lines; //Absolute number of the line of every match
+        private int[] starts;
+        private int[] ends;
+        private int first; //Index of the first match which was not removed
+        private int end;
+
+        private Matches(String text, Matcher matcher) {
+            this.text = text;
+            this.matcher = matcher;
+            this.lines = new long[16];
+            this.starts = new int[16];
+            this.ends = new int[16];
+        }
+
+        /**
+         * Adds the non-overlapping matches of a line. Empty matches of a pattern are skipped.
+         *
+         * @param lineNumber the absolute number of the line
+         * @param line       the text of the line
+         */
+        void find(long lineNumber, String line) {
+            if (text != null) {
+                for (int start = line.indexOf(text); start >= 0; start = line.indexOf(text, start + text.length())) {
+                    add(lineNumber, start, start + text.length());
+                }
+            } else {
+                matcher.reset(line);
+                while (matcher.find()) {
+                    if (matcher.end() > matcher.start()) {
+                        add(lineNumber, matcher.start(), matcher.end());
+                    }
+                }
+            }
+        }
+
+        int size() {
+            return end - first;
+        }
+
+        long getLine(int match) {
+            return lines[first + match];
+        }
+
+        int getStart(int match) {
+            return starts[first + match];
+        }
+
+        int getEnd(int match) {
+            return ends[first + match];
+        }
+
+        private void add(long lineNumber, int start, int matchEnd) {
+            ensureCapacity(1);
+            lines[end] = lineNumber;
+            starts[end] = start;
+            ends[end++] = matchEnd;
+        }
+
+        private void addAll(Matches matches) {
+            ensureCapacity(matches.size());
+            System.arraycopy(matches.lines, matches.first, lines, end, matches.size());
+            System.arraycopy(matches.starts, matches.first, starts, end, matches.size());
+            System.arraycopy(matches.ends, matches.first, ends, end, matches.size());
+            end += matches.size();
+        }
+
+        /**
+         * Removes the matches of the lines in front of the given one.
+         *
+         * @return the amount of removed matches
+         */
+        private int removeBefore(long lineNumber) {
+            int removed = 0;
+            while (first < end && lines[first] < lineNumber) {
+                first++;
+                removed++;
+            }
+            return removed;
+        }
+
+        private void clear() {
+            first = 0;
+            end = 0;
+        }
+
+        /**
+         * Makes room for the given amount of matches, first reusing the space of removed matches.
+         */
+        private void ensureCapacity(int amount) {
+            if (end + amount > lines.length) {
+                int size = size();
+                if (size + amount > lines.length / 2) {
+                    int capacity = Math.max(2 * lines.length, size + amount);
+                    lines = Arrays.copyOf(lines, capacity);
+                    starts = Arrays.copyOf(starts, capacity);
+                    ends = Arrays.copyOf(ends, capacity);
+                }
+                System.arraycopy(lines, first, lines, 0, size);
+                System.arraycopy(starts, first, starts, 0, size);
+                System.arraycopy(ends, first, ends, 0, size);
+                first = 0;
+                end = size;
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package eu.timerertim.lanterna.extras.console;
+
+/**
+ * Index of the completed lines of a console, used to skip blocks of lines which can not contain a searched text.
+ * <p>
+ * The lines are grouped into blocks of {@value #BLOCK_LINES} lines by their absolute number. Every block has a
+ * bloom filter of the trigrams (three consecutive characters) of its lines, taking up {@value #FILTER_BYTES} bytes.
+ * A literal text can only be contained in a block if every one of its trigrams might be contained in the filter,
+ * so most blocks of a large scrollback are skipped without reading a single line. Lines are indexed as they are
+ * completed, so the index is always up to date.
+ */
+class SearchIndex {
+    static final int BLOCK_SHIFT = 10;
+    static final int BLOCK_LINES = 1 << BLOCK_SHIFT;
+    private static final int FILTER_BITS = 1 << 16;
+    private static final int FILTER_BYTES = FILTER_BITS / 8;
+
+    private final RingBuffer<long[]> filters;
+    private long firstBlock; //Absolute number of the first block in filters
+
+    SearchIndex() {
+        this.filters = new RingBuffer<>();
+    }
+
+    /**
+     * Adds the trigrams of a line to the filter of its block.
+     * Lines have to be added in the order of their numbers.
+     *
+     * @param lineNumber the absolute number of the line
+     * @param line       the text of the line
+     */
+    void add(long lineNumber, String line) {
+        long block = lineNumber >>> BLOCK_SHIFT;
+        if (filters.isEmpty()) {
+            firstBlock = block;
+        }
+        while (firstBlock + filters.size() <= block) {
+            filters.add(new long[FILTER_BITS / 64]);
+        }
+
+        long[] filter = filters.getLast();
+        for (int index = 0; index + 3 <= line.length(); index++) {
+            long hash = hash(line, index);
+            filter[(int) (hash >>> 6) & (FILTER_BITS / 64 - 1)] |= 1L << hash;
+            filter[(int) (hash >>> 38) & (FILTER_BITS / 64 - 1)] |= 1L << (hash >>> 32);
+        }
+    }
+
+    /**
+     * Removes the filters of the blocks only containing lines in front of the given one.
+     *
+     * @param firstLineNumber the absolute number of the first line still kept
+     */
+    void removeBefore(long firstLineNumber) {
+        while (!filters.isEmpty() && firstBlock < firstLineNumber >>> BLOCK_SHIFT) {
+            filters.removeFirst();
+            firstBlock++;
+        }
+    }
+
+    void clear() {
+        filters.clear();
+    }
+
+    /**
+     * Returns whether the block containing the given line might contain a line including all given trigrams.
+     * Blocks which were not indexed might contain anything.
+     *
+     * @param lineNumber the absolute number of any line of the block
+     * @param trigrams   the hashes of the trigrams, see {@link SearchIndex#trigrams(String)}
+     * @return false if the block definitely does not contain the trigrams
+     */
+    boolean mightContain(long lineNumber, long[] trigrams) {
+        long block = (lineNumber >>> BLOCK_SHIFT) - firstBlock;
+        if (block < 0 || block >= filters.size()) {
+            return true;
+        }
+
+        long[] filter = filters.get((int) block);
+        for (long hash : trigrams) {
+            if ((filter[(int) (hash >>> 6) & (FILTER_BITS / 64 - 1)] & 1L << hash) == 0 ||
+                    (filter[(int) (hash >>> 38) & (FILTER_BITS / 64 - 1)] & 1L << (hash >>> 32)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the estimated amount of memory in bytes used by this index.
+     *
+     * @return the memory usage in bytes
+     */
+    long getMemoryUsage() {
+        return filters.size() * (16L + FILTER_BYTES);
+    }
+
+    /**
+     * Hashes the trigrams of a literal text.
+     *
+     * @param text the text to search for
+     * @return the hashes or null if the text is too short to contain a trigram
+     */
+    static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return null;
+        }
+
+        long[] hashes = new long[text.length() - 2];
+        for (int index = 0; index < hashes.length; index++) {
+            hashes[index] = hash(text, index);
+        }
+        return hashes;
+    }
+
+    /**
+     * Hashes the trigram at the given index. The lower and upper 32 bits are used as two independent hashes.
+     */
+    private static long hash(String text, int index) {
+        long hash = (long) text.charAt(index) << 32 | (long) text.charAt(index + 1) << 16 | text.charAt(index + 2);
+        hash *= 0x9E3779B97F4A7C15L;
+        return hash ^ hash >>> 29;
+    }
+}
@@ -0,0 +1,365 @@
+package eu.timerertim.lanterna.extras.console;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TextColor;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+
+/**
+ * The content of a console, captured so it can be written to a snapshot file and restored from it later.
+ * <p>
+ * A snapshot file starts with a header of {@value #HEADER_SIZE} bytes, holding the magic number, the version,
+ * the amount of lines and the offsets of the sections following it. The header is followed by the line index,
+ * holding the offset of every line inside the text section followed by the end of the last line, and the text
+ * section, holding the characters of every line encoded like a {@link CompactScrollbackStore} does.
+ * The file ends with the styles section, holding the styles, the attribute runs of the styled lines and the
+ * line still being printed to. All numbers are big-endian.
+ * <p>
+ * Writing only copies the characters into large buffers, which are written to the file channel at once.
+ * Reading maps the file and only reads the small styles section, while the lines are read from the
+ * mapping when needed using the line index of the file, so restoring does not depend on the amount of lines.
+ */
+class SessionSnapshot {
+    private static final int MAGIC = 0x4C435353; //"LCSS" for lanterna console session snapshot
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int BUFFER_SIZE = 1 << 20; //Bytes written to the channel at once
+    static final long UTF16_FLAG = 1L << 63; //Marks lines in the line index which are encoded using two bytes per char
+    static final int SEGMENT_SHIFT = 30; //Files are mapped in segments of 1GB
+    static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    // Color types of the styles section
+    private static final int NO_COLOR = 0;
+    private static final int ANSI_COLOR = 1;
+    private static final int SGR_COLOR = 2; //Any other color, stored as its foreground SGR sequence
+
+    private final ScrollbackStore lines;
+    private final TextStyle[] styles; //Every style by its id
+    private final int[] styledLines; //Index of every styled line
+    private final int[][] styledRuns; //Attribute runs of every styled line
+    private final String currentLine;
+    private final int[] currentRuns; //Null if the current line is not styled
+
+    /**
+     * Creates a new snapshot. None of the given objects may be modified afterwards.
+     *
+     * @param lines       the completed lines
+     * @param styles      the styles referenced by the runs, by their id
+     * @param styledLines the index of every styled line
+     * @param styledRuns  the attribute runs of every styled line
+     * @param currentLine the line still being printed to
+     * @param currentRuns the attribute runs of the current line, null if it is not styled
+     */
+    SessionSnapshot(ScrollbackStore lines, TextStyle[] styles, int[] styledLines, int[][] styledRuns, String currentLine, int[] currentRuns) {
+        this.lines = lines;
+        this.styles = styles;
+        this.styledLines = styledLines;
+        this.styledRuns = styledRuns;
+        this.currentLine = currentLine;
+        this.currentRuns = currentRuns;
+    }
+
+    /**
+     * Maps the given snapshot file and reads its styles section. The lines stay in the mapping.
+     *
+     * @param file the snapshot file
+     * @return the snapshot, whose lines are a {@link MappedScrollbackStore}
+     * @throws IOException if the file can not be read or is not a valid snapshot file
+     */
+    static SessionSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            } else if (header.getInt() != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + file);
+            }
+            long lineCount = header.getLong();
+            long textOffset = header.getLong();
+            long stylesOffset = header.getLong();
+            if (lineCount < 0 || lineCount >= Integer.MAX_VALUE || textOffset != HEADER_SIZE + 8 * (lineCount + 1)
+                    || stylesOffset < textOffset || stylesOffset > size || size - stylesOffset > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt snapshot file: " + file);
+            }
+
+            // The mapping stays valid after the channel is closed
+            ByteBuffer[] segments = new ByteBuffer[(int) ((stylesOffset + SEGMENT_SIZE - 1) >> SEGMENT_SHIFT)];
+            for (int segment = 0; segment < segments.length; segment++) {
+                long start = (long) segment << SEGMENT_SHIFT;
+                segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, stylesOffset - start));
+            }
+            MappedScrollbackStore lines = new MappedScrollbackStore(segments, HEADER_SIZE, textOffset, (int) lineCount, new HeapScrollbackStore());
+
+            ByteBuffer stylesSection = ByteBuffer.allocate((int) (size - stylesOffset));
+            readFully(channel, stylesSection, stylesOffset);
+            stylesSection.flip();
+            try {
+                return readStyles(lines, stylesSection);
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt snapshot file: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Writes this snapshot to the given file, replacing it.
+     * <p>
+     * The snapshot is written to a temporary file next to it first, which is then moved in place of the file.
+     * This way, the file is never left half written and consoles still reading a previous snapshot from the file
+     * keep their mapping of it.
+     *
+     * @param file the snapshot file
+     * @throws IOException if the file can not be written
+     */
+    void write(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int lineCount = lines.size();
+            long textOffset = HEADER_SIZE + 8L * (lineCount + 1);
+
+            // The line index and the text section are written side by side, each using its own buffer
+            ByteBuffer index = ByteBuffer.allocate(BUFFER_SIZE);
+            ByteBuffer text = ByteBuffer.allocate(BUFFER_SIZE);
+            long indexPosition = HEADER_SIZE;
+            long textPosition = textOffset;
+            long textSize = 0;
+            for (int line = 0; line <= lineCount; line++) {
+                if (!index.hasRemaining()) {
+                    indexPosition += writeFully(channel, index, indexPosition);
+                }
+                if (line == lineCount) {
+                    index.putLong(textSize);
+                    break;
+                }
+
+                String characters = lines.get(line);
+                boolean latin1 = CompactScrollbackStore.isLatin1(characters);
+                int bytes = latin1 ? characters.length() : 2 * characters.length();
+                index.putLong(latin1 ? textSize : textSize | UTF16_FLAG);
+                textSize += bytes;
+                if (bytes > text.remaining()) {
+                    textPosition += writeFully(channel, text, textPosition);
+                    if (bytes > text.capacity()) {
+                        text = ByteBuffer.allocate(bytes);
+                    }
+                }
+
+                // Encode the line into the buffer
+                if (latin1) {
+                    for (int character = 0; character < characters.length(); character++) {
+                        text.put((byte) characters.charAt(character));
+                    }
+                } else {
+                    for (int character = 0; character < characters.length(); character++) {
+                        text.putChar(characters.charAt(character));
+                    }
+                }
+            }
+            writeFully(channel, index, indexPosition);
+            writeFully(channel, text, textPosition);
+
+            long stylesOffset = textOffset + textSize;
+            byte[] stylesSection = writeStyles();
+            writeFully(channel, ByteBuffer.allocate(stylesSection.length).put(stylesSection), stylesOffset);
+
+            // The header is written last, so it only references sections which were written
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(lineCount).putLong(textOffset).putLong(stylesOffset);
+            writeFully(channel, header, 0);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    ScrollbackStore getLines() {
+        return lines;
+    }
+
+    TextStyle[] getStyles() {
+        return styles;
+    }
+
+    int[] getStyledLines() {
+        return styledLines;
+    }
+
+    int[][] getStyledRuns() {
+        return styledRuns;
+    }
+
+    String getCurrentLine() {
+        return currentLine;
+    }
+
+    int[] getCurrentRuns() {
+        return currentRuns;
+    }
+
+    private byte[] writeStyles() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(styles.length);
+        for (TextStyle style : styles) {
+            writeColor(out, style.getForeground());
+            writeColor(out, style.getBackground());
+            int modifiers = 0;
+            for (SGR modifier : style.getModifierSet()) {
+                modifiers |= 1 << modifier.ordinal();
+            }
+            out.writeInt(modifiers);
+        }
+
+        out.writeInt(styledLines.length);
+        for (int line = 0; line < styledLines.length; line++) {
+            out.writeInt(styledLines[line]);
+            writeRuns(out, styledRuns[line]);
+        }
+
+        out.writeInt(currentLine.length());
+        out.writeChars(currentLine);
+        writeRuns(out, currentRuns);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static SessionSnapshot readStyles(ScrollbackStore lines, ByteBuffer in) {
+        TextStyle[] styles = new TextStyle[in.getInt()];
+        for (int style = 0; style < styles.length; style++) {
+            TextColor foreground = readColor(in);
+            TextColor background = readColor(in);
+            int modifierBits = in.getInt();
+            EnumSet<SGR> modifiers = EnumSet.noneOf(SGR.class);
+            for (SGR modifier : SGR.values()) {
+                if ((modifierBits & 1 << modifier.ordinal()) != 0) {
+                    modifiers.add(modifier);
+                }
+            }
+            styles[style] = new TextStyle(foreground, background, modifiers.toArray(new SGR[0]));
+        }
+
+        int[] styledLines = new int[in.getInt()];
+        int[][] styledRuns = new int[styledLines.length][];
+        for (int line = 0; line < styledLines.length; line++) {
+            styledLines[line] = in.getInt();
+            styledRuns[line] = readRuns(in, styles.length);
+            if (styledLines[line] < 0 || styledLines[line] >= lines.size() || styledRuns[line] == null) {
+                throw new IllegalArgumentException("Invalid styled line: " + styledLines[line]);
+            }
+        }
+
+        char[] currentLine = new char[in.getInt()];
+        in.asCharBuffer().get(currentLine);
+        in.position(in.position() + 2 * currentLine.length);
+        int[] currentRuns = readRuns(in, styles.length);
+        return new SessionSnapshot(lines, styles, styledLines, styledRuns, new String(currentLine), currentRuns);
+    }
+
+    private static void writeColor(DataOutputStream out, TextColor color) throws IOException {
+        if (color == null) {
+            out.writeByte(NO_COLOR);
+        } else if (color instanceof TextColor.ANSI) {
+            out.writeByte(ANSI_COLOR);
+            out.writeByte(((TextColor.ANSI) color).ordinal());
+        } else {
+            byte[] sequence = color.getForegroundSGRSequence();
+            out.writeByte(SGR_COLOR);
+            out.writeShort(sequence.length);
+            out.write(sequence);
+        }
+    }
+
+    /**
+     * Reads a color, parsing the SGR sequences of indexed and RGB colors like an {@link AnsiParser} does.
+     */
+    private static TextColor readColor(ByteBuffer in) {
+        int type = in.get();
+        if (type == NO_COLOR) {
+            return null;
+        } else if (type == ANSI_COLOR) {
+            return TextColor.ANSI.values()[in.get()];
+        } else if (type == SGR_COLOR) {
+            byte[] sequence = new byte[in.getShort() & 0xFFFF];
+            in.get(sequence);
+            String[] parameters = new String(sequence, StandardCharsets.US_ASCII).split(";");
+            if (parameters.length == 3 && parameters[1].equals("5")) {
+                return new TextColor.Indexed(Integer.parseInt(parameters[2]));
+            } else if (parameters.length == 5 && parameters[1].equals("2")) {
+                return new TextColor.RGB(Integer.parseInt(parameters[2]), Integer.parseInt(parameters[3]), Integer.parseInt(parameters[4]));
+            } else {
+                return null;
+            }
+        } else {
+            throw new IllegalArgumentException("Invalid color type: " + type);
+        }
+    }
+
+    private static void writeRuns(DataOutputStream out, int[] runs) throws IOException {
+        if (runs == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(runs.length);
+        for (int value : runs) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readRuns(ByteBuffer in, int styleCount) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        int[] runs = new int[length];
+        for (int index = 0; index < length; index++) {
+            runs[index] = in.getInt();
+            if (index % 2 == 1 && (runs[index] < 0 || runs[index] >= styleCount)) {
+                throw new IllegalArgumentException("Invalid style id: " + runs[index]);
+            }
+        }
+        return runs;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return;
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Writes the written part of the buffer at the given position and clears the buffer.
+     *
+     * @return the amount of bytes written
+     */
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.flip();
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+        return length;
+    }
+}
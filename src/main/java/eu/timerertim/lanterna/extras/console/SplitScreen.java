@@ -0,0 +1,305 @@
+package eu.timerertim.lanterna.extras.console;
+
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.screen.TerminalScreen;
+import com.googlecode.lanterna.terminal.TerminalResizeListener;
+import eu.timerertim.lanterna.extras.handlers.ConsoleInputListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Splits one {@link Screen} into several independent consoles, called panes, which are stacked on top of each other.
+ * <p>
+ * Every pane has its own content, scrollback and input row, and only redraws its own rows when it changes,
+ * so a busy pane does not make the others redraw. All panes share one render thread, which applies the changes
+ * of every pane requesting a render and then refreshes the screen once per frame, and one input thread.
+ * The keys are passed to the focused pane, while the Tab key moves the focus to the next pane.
+ * The frame rate set on any pane applies to all of them.
+ * <p>
+ * The rows of the screen are divided between the panes according to their weights, also after resizes.
+ */
+public final class SplitScreen implements Closeable {
+    private static final KeyType FOCUS_KEY = KeyType.Tab;
+    private static final int FRAME_RATE = 60;
+
+    private final Screen screen;
+    private final int[] weights;
+    private final RenderScheduler renderScheduler;
+    private final TerminalResizeListener resizeListener;
+    private final ScreenConsole[] panes;
+    private final boolean[] rendered; //Reused by the render thread to remember the panes rendered in the current frame
+    private final ConsoleInputListener input;
+    private volatile ScreenConsole focused;
+    private volatile boolean started; //Whether every pane was created, so the render thread can render them
+    private boolean closed;
+
+    /**
+     * Creates a new SplitScreen object and prepares the given {@code Screen} object, like a {@link ScreenConsole}.
+     * <p>
+     * The first pane is at the top of the screen and focused.
+     *
+     * @param screen     the underlying screen
+     * @param autoUpdate the update behavior of every pane (comparable to auto flush)
+     * @param weights    the share of the rows of every pane, from the top to the bottom
+     * @throws IOException the {@code Exception} thrown if there is an underlying IO error when starting the screen
+     */
+    public SplitScreen(Screen screen, boolean autoUpdate, int... weights) throws IOException {
+        if (weights.length == 0) {
+            throw new IllegalArgumentException("There has to be at least one pane");
+        }
+        for (int weight : weights) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Weights have to be positive: " + weight);
+            }
+        }
+
+        this.screen = screen;
+        this.weights = weights.clone();
+        this.renderScheduler = new RenderScheduler(this::render, FRAME_RATE);
+        this.resizeListener = (terminal, newSize) -> resize();
+        this.panes = new ScreenConsole[weights.length];
+        this.rendered = new boolean[weights.length];
+        if (screen instanceof TerminalScreen) {
+            ((TerminalScreen) screen).getTerminal().addResizeListener(resizeListener);
+        }
+        screen.setCursorPosition(null);
+        screen.startScreen();
+
+        TerminalSize size = screen.getTerminalSize();
+        for (int pane = 0; pane < panes.length; pane++) {
+            panes[pane] = new ScreenConsole(this, getPosition(pane, size), getSize(pane, size), autoUpdate);
+        }
+        focused = panes[0];
+        renderScheduler.setEveryFrameTask(this::processInput);
+        input = new PaneInputListener(); //Created last, as it focuses and scrolls the panes from its own thread
+        input.setLossless(false); //Keys are only read while the focused pane reads a line
+        for (ScreenConsole pane : panes) {
+            synchronized (pane) {
+                pane.consoleInput = input;
+            }
+        }
+        started = true;
+    }
+
+    /**
+     * Same as calling {@link SplitScreen#SplitScreen(Screen, boolean, int...) SplitScreen(screen, true, weights)}.
+     *
+     * @param screen  the underlying screen
+     * @param weights the share of the rows of every pane, from the top to the bottom
+     * @throws IOException the {@code Exception} thrown if there is an underlying IO error when starting the screen
+     */
+    public SplitScreen(Screen screen, int... weights) throws IOException {
+        this(screen, true, weights);
+    }
+
+    /**
+     * Returns the pane at the given index.
+     *
+     * @param index the index of the pane, counted from the top
+     * @return the pane
+     */
+    public Console getPane(int index) {
+        checkIndex(index);
+        return panes[index];
+    }
+
+    public int getPaneCount() {
+        return panes.length;
+    }
+
+    /**
+     * Returns the pane receiving the keys, which also shows its cursor while it reads a line.
+     *
+     * @return the focused pane
+     */
+    public Console getFocusedPane() {
+        return focused;
+    }
+
+    /**
+     * Moves the focus to the pane at the given index.
+     * <p>
+     * Keys which were not read by the previously focused pane yet are read by the newly focused one.
+     *
+     * @param index the index of the pane, counted from the top
+     */
+    public void setFocusedPane(int index) {
+        checkIndex(index);
+        focus(panes[index]);
+        input.setConsole(panes[index]);
+    }
+
+    /**
+     * Closes every pane, the shared threads and the underlying screen. Has no effect on second call.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+
+        if (screen instanceof TerminalScreen) {
+            ((TerminalScreen) screen).getTerminal().removeResizeListener(resizeListener);
+        }
+        renderScheduler.close();
+        for (ScreenConsole pane : panes) {
+            pane.close();
+        }
+        input.close();
+        try {
+            screen.close();
+        } catch (IOException e) {
+            screen.clear();
+        }
+    }
+
+    Screen getScreen() {
+        return screen;
+    }
+
+    RenderScheduler getRenderScheduler() {
+        return renderScheduler;
+    }
+
+    /**
+     * Refreshes the screen, showing the cursor of the focused pane.
+     * Panes only draw to the screen while holding the lock of this split screen.
+     */
+    synchronized void refresh(Screen.RefreshType type) throws IOException {
+        ScreenConsole pane = focused; //Null while the panes are created
+        screen.setCursorPosition(pane != null ? pane.cursorPosition : null);
+        screen.refresh(type);
+    }
+
+    /**
+     * Lets the shared input listener keep every unread key only while the focused pane reads a line.
+     * Otherwise no one takes the keys out of its buffer, so it would stop moving the focus and scrolling once it is full.
+     */
+    synchronized void updateLossless() {
+        input.setLossless(focused.readingLine);
+    }
+
+    /**
+     * The task executed by the render thread.
+     * Applies the changes of every pane requesting a render, refreshing the screen once for all of them.
+     */
+    private void render() {
+        if (!started) {
+            return; //The render requests of the panes are kept until the next frame
+        }
+
+        boolean refresh = false;
+        for (int pane = 0; pane < panes.length; pane++) {
+            rendered[pane] = panes[pane].renderRequested.getAndSet(false) && panes[pane].renderPane();
+            refresh |= rendered[pane];
+        }
+
+        if (refresh) {
+            long start = System.nanoTime();
+            try {
+                refresh(Screen.RefreshType.AUTOMATIC);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            for (int pane = 0; pane < panes.length; pane++) {
+                if (rendered[pane]) {
+                    panes[pane].refreshed(start);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the keys made since the last frame to the line read by the focused pane.
+     */
+    private void processInput() {
+        focused.processInput();
+    }
+
+    private void focus(ScreenConsole pane) {
+        focused = pane;
+        updateLossless();
+
+        // Let the next frame move the cursor to the focused pane
+        pane.renderRequested.set(true);
+        renderScheduler.requestRender();
+    }
+
+    private ScreenConsole focusNext() {
+        ScreenConsole current = focused;
+        int index = 0;
+        while (panes[index] != current) {
+            index++;
+        }
+        ScreenConsole next = panes[(index + 1) % panes.length];
+        focus(next);
+        return next;
+    }
+
+    /**
+     * Divides the rows of the screen between the panes again after it was resized.
+     */
+    private void resize() {
+        TerminalSize size;
+        synchronized (this) {
+            size = screen.doResizeIfNecessary();
+        }
+        if (size != null) {
+            for (int pane = 0; pane < panes.length; pane++) {
+                panes[pane].setRegion(getPosition(pane, size), getSize(pane, size));
+            }
+        }
+    }
+
+    private TerminalPosition getPosition(int pane, TerminalSize size) {
+        return new TerminalPosition(0, getTop(pane, size));
+    }
+
+    private TerminalSize getSize(int pane, TerminalSize size) {
+        return new TerminalSize(size.getColumns(), getTop(pane + 1, size) - getTop(pane, size));
+    }
+
+    /**
+     * Returns the first row of the given pane, or the amount of rows for the index behind the last pane.
+     */
+    private int getTop(int pane, TerminalSize size) {
+        int total = Arrays.stream(weights).sum();
+        int before = Arrays.stream(weights, 0, pane).sum();
+        return (int) ((long) size.getRows() * before / total);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= panes.length) {
+            throw new IllegalArgumentException("There is no pane at index " + index);
+        }
+    }
+
+    /**
+     * Passes the keys to the focused pane and moves the focus to the next pane on Tab.
+     * Not static, so the split screen is already known when the input thread starts in the constructor.
+     */
+    private class PaneInputListener extends ConsoleInputListener {
+        private PaneInputListener() {
+            super(screen, focused);
+        }
+
+        @Override
+        protected boolean processInput(KeyStroke key) {
+            if (key.getKeyType() == FOCUS_KEY) {
+                setConsole(focusNext());
+                return false;
+            }
+            return super.processInput(key);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns {@link TextStyle}s, so styled text only has to store an int per attribute run.
+ * <p>
+ * An attribute run is a range of characters sharing the same style. The runs of a text are stored
+ * as one int array of pairs, each holding the exclusive end index of the run followed by the id of its style.
+ * The runs are ordered and cover the text without gaps. Text consisting only of characters in the
+ * {@link StyleTable#DEFAULT default} style has no runs at all, which is represented by null.
+ * <p>
+ * Evicting lines does not release their styles by itself, so text printed in ever new styles, like gradients,
+ * would grow the table without bound. Instead, the table is compacted once the amount of interned styles doubled
+ * since the last compaction, forgetting the styles no longer referenced and reusing their ids.
+ */
+class StyleTable {
+    static final int DEFAULT = 0; //Id of TextStyle.DEFAULT, which is always interned
+    private static final int MIN_COMPACTION_SIZE = 4096; //Styles interned at least before compacting pays off
+
+    private final List<TextStyle> styles; //Null for ids which are free
+    private final Map<TextStyle, Integer> ids;
+    private final Deque<Integer> freeIds;
+    private int compactedSize; //Amount of styles kept by the last compaction
+    private TextStyle lastStyle; //Style looked up last, as text is mostly printed in the same style repeatedly
+    private int lastId;
+
+    StyleTable() {
+        this.styles = new ArrayList<>();
+        this.ids = new HashMap<>();
+        this.freeIds = new ArrayDeque<>();
+        clear();
+    }
+
+    /**
+     * Returns the id of the given style, interning it if it was not interned before.
+     *
+     * @param style the style, null is treated as the default style
+     * @return the id of the style
+     */
+    int getId(TextStyle style) {
+        if (style == null) {
+            return DEFAULT;
+        } else if (style == lastStyle) {
+            return lastId;
+        }
+
+        Integer id = ids.get(style);
+        if (id == null) {
+            if (freeIds.isEmpty()) {
+                id = styles.size();
+                styles.add(style);
+            } else {
+                id = freeIds.pop();
+                styles.set(id, style);
+            }
+            ids.put(style, id);
+        }
+        lastStyle = style;
+        lastId = id;
+        return id;
+    }
+
+    TextStyle get(int id) {
+        return styles.get(id);
+    }
+
+    /**
+     * Returns every interned style by its id. Free ids get the default style, as no run references them.
+     *
+     * @return the styles
+     */
+    TextStyle[] toArray() {
+        TextStyle[] array = new TextStyle[styles.size()];
+        for (int id = 0; id < array.length; id++) {
+            TextStyle style = styles.get(id);
+            array[id] = style != null ? style : TextStyle.DEFAULT;
+        }
+        return array;
+    }
+
+    /**
+     * Returns whether enough styles were interned since the last compaction for another one to pay off.
+     *
+     * @return true if {@link StyleTable#compact(BitSet)} should be called
+     */
+    boolean needsCompaction() {
+        return ids.size() > Math.max(MIN_COMPACTION_SIZE, 2 * compactedSize);
+    }
+
+    /**
+     * Forgets every style which is no longer referenced, so its id can be reused.
+     * The ids of the remaining styles stay the same.
+     *
+     * @param used the ids still referenced by any runs, the default style is always kept
+     */
+    void compact(BitSet used) {
+        for (int id = DEFAULT + 1; id < styles.size(); id++) {
+            TextStyle style = styles.get(id);
+            if (style != null && !used.get(id)) {
+                ids.remove(style);
+                styles.set(id, null);
+                freeIds.push(id);
+            }
+        }
+        lastStyle = null;
+        compactedSize = ids.size();
+    }
+
+    /**
+     * Returns the estimated amount of memory in bytes used by this table.
+     *
+     * @return the memory usage in bytes
+     */
+    long getMemoryUsage() {
+        return 8L * styles.size() + 96L * ids.size(); //Slot of every id plus the style and its map entry
+    }
+
+    /**
+     * Forgets every interned style except for the default style.
+     * Must only be called once no runs referencing the styles are left.
+     */
+    void clear() {
+        styles.clear();
+        ids.clear();
+        freeIds.clear();
+        compactedSize = 0;
+        lastStyle = null;
+        getId(TextStyle.DEFAULT);
+    }
+
+    /**
+     * Returns the runs of a range of a text, with their end indices relative to the start of the range.
+     *
+     * @param runs     the runs of the whole text, may be null
+     * @param runCount the amount of runs, which is half of the used length of the runs array
+     * @param start    the index of the first character of the range
+     * @param end      the exclusive end index of the range
+     * @return the runs of the range or null if it only contains characters in the default style
+     */
+    static int[] slice(int[] runs, int runCount, int start, int end) {
+        if (runs == null || start >= end) {
+            return null;
+        }
+
+        // Binary search for the first run ending behind the start
+        int low = 0;
+        int high = runCount - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (runs[2 * middle] <= start) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int[] slice = new int[2 * (runCount - low)];
+        int length = 0;
+        boolean styled = false;
+        for (int run = low; run < runCount && (length == 0 || runs[2 * run - 2] < end); run++) {
+            slice[length++] = Math.min(runs[2 * run], end) - start;
+            slice[length++] = runs[2 * run + 1];
+            styled |= runs[2 * run + 1] != DEFAULT;
+        }
+        return styled ? Arrays.copyOf(slice, length) : null;
+    }
+
+    /**
+     * Returns new runs in which a range of the text has the given style, like a highlighted match.
+     *
+     * @param runs  the runs of the whole text, not null
+     * @param start the index of the first character of the range
+     * @param end   the exclusive end index of the range
+     * @param style the id of the style of the range
+     * @return the new runs
+     */
+    static int[] overlay(int[] runs, int start, int end, int style) {
+        int[] overlaid = new int[runs.length + 4];
+        int length = 0;
+        int runStart = 0;
+        boolean inserted = false;
+        for (int run = 0; run < runs.length; run += 2) {
+            int runEnd = runs[run];
+            if (runStart < start) {
+                length = addRun(overlaid, length, Math.min(runEnd, start), runs[run + 1]);
+            }
+            if (runEnd > start && !inserted) {
+                length = addRun(overlaid, length, end, style);
+                inserted = true;
+            }
+            if (runEnd > end) {
+                length = addRun(overlaid, length, runEnd, runs[run + 1]);
+            }
+            runStart = runEnd;
+        }
+        return Arrays.copyOf(overlaid, length);
+    }
+
+    /**
+     * Adds a run, merging it into the previous run if both have the same style.
+     *
+     * @return the new used length of the runs
+     */
+    private static int addRun(int[] runs, int length, int end, int style) {
+        if (length > 0 && runs[length - 1] == style) {
+            runs[length - 2] = end;
+            return length;
+        }
+        runs[length] = end;
+        runs[length + 1] = style;
+        return length + 2;
+    }
+}
@@ -0,0 +1,81 @@
+package eu.timerertim.lanterna.extras.console;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Advances the text animations of every console on a single shared timer thread.
+ * <p>
+ * The thread only ticks while at least one console has text left to animate and stops once it was idle
+ * for a second, so consoles not animating anything cost nothing. On every tick, each animating console
+ * prints all characters which are due at once, so its rows are only updated once per tick no matter
+ * how fast the text is animated.
+ */
+class TextAnimator {
+    private static final long TICK_PERIOD = TimeUnit.SECONDS.toNanos(1) / 60;
+    private static final TextAnimator INSTANCE = new TextAnimator();
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Set<ScreenConsole> consoles; //Consoles with text left to animate
+    private ScheduledFuture<?> tickTask; //Null while no console is animating
+
+    private TextAnimator() {
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "Console-Animation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setKeepAliveTime(1, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        this.consoles = ConcurrentHashMap.newKeySet();
+    }
+
+    static TextAnimator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts animating the text of the given console on the following ticks.
+     * Must be called while holding the lock of the console.
+     *
+     * @param console the console with text to animate
+     */
+    synchronized void start(ScreenConsole console) {
+        consoles.add(console);
+        if (tickTask == null) {
+            tickTask = executor.scheduleAtFixedRate(this::tick, TICK_PERIOD, TICK_PERIOD, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Stops animating the text of the given console.
+     * Must be called while holding the lock of the console.
+     *
+     * @param console the console without text to animate
+     */
+    void stop(ScreenConsole console) {
+        consoles.remove(console);
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        for (ScreenConsole console : consoles) {
+            try {
+                console.advanceAnimation(now);
+            } catch (RuntimeException e) {
+                // A failing console must not stop the animations of the others, as the timer stops on exceptions
+                consoles.remove(console);
+                e.printStackTrace();
+            }
+        }
+        synchronized (this) {
+            if (consoles.isEmpty()) {
+                tickTask.cancel(false);
+                tickTask = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package eu.timerertim.lanterna.extras.console;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TextColor;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable style of printed text, consisting of a foreground color, a background color and modifiers.
+ * <p>
+ * Colors which are null fall back to the text and background color of the console, so text printed
+ * using {@link TextStyle#DEFAULT} looks exactly like text printed without any style.
+ */
+public final class TextStyle {
+    /**
+     * The style of text printed without any style.
+     */
+    public static final TextStyle DEFAULT = new TextStyle(null, null);
+
+    private final TextColor foreground;
+    private final TextColor background;
+    private final EnumSet<SGR> modifiers;
+    private final int hash; //Cached, as styles are looked up for every piece of styled text
+
+    /**
+     * Creates a new style.
+     *
+     * @param foreground the color of the text, null for the text color of the console
+     * @param background the color behind the text, null for the background color of the console
+     * @param modifiers  the modifiers like {@link SGR#BOLD} applied to the text
+     */
+    public TextStyle(TextColor foreground, TextColor background, SGR... modifiers) {
+        EnumSet<SGR> set = EnumSet.noneOf(SGR.class);
+        Collections.addAll(set, modifiers);
+        this.foreground = foreground;
+        this.background = background;
+        this.modifiers = set;
+        this.hash = Objects.hash(foreground, background, set);
+    }
+
+    public TextColor getForeground() {
+        return foreground;
+    }
+
+    public TextColor getBackground() {
+        return background;
+    }
+
+    public Set<SGR> getModifiers() {
+        return Collections.unmodifiableSet(modifiers);
+    }
+
+    /**
+     * Returns the modifiers without copying them. The returned set must not be modified.
+     *
+     * @return the modifiers
+     */
+    EnumSet<SGR> getModifierSet() {
+        return modifiers;
+    }
+
+    public TextStyle withForeground(TextColor foreground) {
+        return new TextStyle(foreground, background, modifiers.toArray(new SGR[0]));
+    }
+
+    public TextStyle withBackground(TextColor background) {
+        return new TextStyle(foreground, background, modifiers.toArray(new SGR[0]));
+    }
+
+    public TextStyle withModifiers(SGR... modifiers) {
+        return new TextStyle(foreground, background, modifiers);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TextStyle style = (TextStyle) o;
+        return hash == style.hash &&
+                Objects.equals(foreground, style.foreground) &&
+                Objects.equals(background, style.background) &&
+                modifiers.equals(style.modifiers);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "TextStyle{foreground=" + foreground + ", background=" + background + ", modifiers=" + modifiers + "}";
+    }
+}
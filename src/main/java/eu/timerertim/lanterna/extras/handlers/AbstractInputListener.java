@@ -2,44 +2,83 @@ package eu.timerertim.lanterna.extras.handlers;
 
 import com.googlecode.lanterna.input.InputProvider;
 import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 abstract class AbstractInputListener implements InputListener {
+    private static final int BUFFER_CAPACITY = 1024; //Keys kept while no one reads them, further input waits inside the InputProvider
+
     private final InputProvider input;
+    private final InputBuffer buffer;
     private final Thread thisThread;
-    private Thread helperThread;
-    private KeyStroke latestKey;
 
     protected AbstractInputListener(InputProvider input) {
+        this(input, false);
+    }
+
+    /**
+     * Creates a new {@code InputListener} and starts the thread pumping the input into its buffer.
+     * <p>
+     * Virtual threads are only used if the running Java version supports them,
+     * otherwise a platform daemon thread is used.
+     *
+     * @param input         the input to listen to
+     * @param virtualThread whether or not to pump the input on a virtual thread
+     */
+    protected AbstractInputListener(InputProvider input, boolean virtualThread) {
         this.input = input;
-        (thisThread = new Thread(this)).setDaemon(true);
-        thisThread.start();
+        this.buffer = new InputBuffer(BUFFER_CAPACITY);
+        Thread thread = virtualThread ? newVirtualThread(this) : null;
+        if (thread == null) {
+            (thread = new Thread(this, "Console-Input")).setDaemon(true);
+        }
+        (thisThread = thread).start();
     }
 
     @Override
     public KeyStroke readInput() {
-        // Preparation
-        latestKey = null;
-        helperThread = Thread.currentThread();
-
-        // Waiting for input
         try {
-            synchronized (helperThread) {
-                helperThread.wait();
-            }
+            return buffer.take(-1);
         } catch (InterruptedException e) {
-            return latestKey;
+            Thread.currentThread().interrupt();
+            return null;
         }
+    }
 
-        // Input was made
-        helperThread = null;
-        return latestKey;
+    @Override
+    public KeyStroke readInput(long timeout, TimeUnit unit) {
+        try {
+            return buffer.take(Math.max(0, unit.toNanos(timeout)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
     }
 
     @Override
     public KeyStroke pollInput() throws IOException {
-        return input.pollInput();
+        return buffer.poll();
+    }
+
+    @Override
+    public long getInputTime() {
+        return buffer.getTakenTime();
+    }
+
+    /**
+     * Sets whether keys which were not read yet are kept if the buffer is full.
+     * <p>
+     * Keeping them is the default, so no key is ever lost. The thread listening to the input then waits
+     * for a key to be read before it takes the next one, so it does not process any further input either,
+     * see {@link AbstractInputListener#processInput(KeyStroke)}. If no one reads the keys, disable this to
+     * drop the oldest key instead, which keeps the {@value #BUFFER_CAPACITY} keys made last.
+     *
+     * @param lossless whether or not to keep every key until it is read
+     */
+    public void setLossless(boolean lossless) {
+        buffer.setOverwriting(!lossless);
     }
 
     @Override
@@ -48,29 +87,26 @@ abstract class AbstractInputListener implements InputListener {
             try {
                 // Checking for new input
                 KeyStroke key = input.readInput();
-                if (processInput(key)) {
-                    if (latestKey == null && helperThread != null) {
-                        latestKey = key;
-                        synchronized (helperThread) {
-                            helperThread.notify();
-                        }
-                    } else {
-                        latestKey = key;
-                    }
+                if (thisThread.isInterrupted()) {
+                    break; //Closed while waiting for input
+                }
+                if (key != null && processInput(key) && !buffer.put(key)) {
+                    break;
+                }
+                if (key != null && key.getKeyType() == KeyType.EOF) {
+                    break;
                 }
             } catch (IOException e) {
                 thisThread.interrupt();
             }
         }
+        buffer.close();
     }
 
     @Override
     public void close() {
-        if (thisThread.isAlive()) {
-            thisThread.interrupt();
-            helperThread.notify();
-            helperThread = null;
-        }
+        thisThread.interrupt();
+        buffer.close();
     }
 
     /**
@@ -85,4 +121,18 @@ abstract class AbstractInputListener implements InputListener {
      * true -> transmit input
      */
     protected abstract boolean processInput(KeyStroke key);
+
+    /**
+     * Creates an unstarted virtual thread using reflection, as virtual threads are not available in every Java version.
+     *
+     * @return the thread or null if virtual threads are not supported
+     */
+    private static Thread newVirtualThread(Runnable task) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (Thread) Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class).invoke(builder, task);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
 }
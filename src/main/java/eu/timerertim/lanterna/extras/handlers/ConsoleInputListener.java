@@ -3,17 +3,96 @@ package eu.timerertim.lanterna.extras.handlers;
 import com.googlecode.lanterna.input.InputProvider;
 import com.googlecode.lanterna.input.KeyStroke;
 import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.input.MouseAction;
+import com.googlecode.lanterna.input.MouseActionType;
 import eu.timerertim.lanterna.extras.console.Console;
 
+/**
+ * {@code InputListener} of a {@link Console}, which handles the keys scrolling its history itself
+ * and transmits every other key.
+ * <p>
+ * PageUp and PageDown scroll by a page, Home and End scroll to the top and the bottom and
+ * the mouse wheel scrolls by {@value #WHEEL_ROWS} rows. The skip key of the console finishes its text animation
+ * and is only transmitted if no text was being animated.
+ */
 public class ConsoleInputListener extends AbstractInputListener {
-    private Console console;
+    private static final int WHEEL_ROWS = 3;
+
+    private volatile Console console; //Null if the keys only are filtered, changed whenever another console is focused
 
     public ConsoleInputListener(InputProvider input) {
-        super(input);
+        this(input, null);
+    }
+
+    /**
+     * Creates a new {@code ConsoleInputListener} listening to the given input.
+     *
+     * @param input         the input to listen to
+     * @param virtualThread whether or not to listen on a virtual thread, if supported by the running Java version
+     */
+    public ConsoleInputListener(InputProvider input, boolean virtualThread) {
+        this(input, null, virtualThread);
+    }
+
+    /**
+     * Creates a new {@code ConsoleInputListener} listening to the given input and scrolling the given console.
+     *
+     * @param input   the input to listen to
+     * @param console the console to scroll, null to only filter the scrolling keys
+     */
+    public ConsoleInputListener(InputProvider input, Console console) {
+        this(input, console, false);
+    }
+
+    /**
+     * Creates a new {@code ConsoleInputListener} listening to the given input and scrolling the given console.
+     *
+     * @param input         the input to listen to
+     * @param console       the console to scroll, null to only filter the scrolling keys
+     * @param virtualThread whether or not to listen on a virtual thread, if supported by the running Java version
+     */
+    public ConsoleInputListener(InputProvider input, Console console, boolean virtualThread) {
+        super(input, virtualThread);
+        this.console = console;
+    }
+
+    /**
+     * Changes the console the keys are applied to, e.g. because another console was focused.
+     *
+     * @param console the console to scroll, null to only filter the scrolling keys
+     */
+    public void setConsole(Console console) {
+        this.console = console;
     }
 
     @Override
     protected boolean processInput(KeyStroke key) {
-        return !key.getKeyType().equals(KeyType.PageUp);
+        Console console = this.console;
+        KeyType type = key.getKeyType();
+        if (console != null && type == console.getSkipTextAnimationKey() && console.skipTextAnimation()) {
+            return false;
+        } else if (type == KeyType.PageUp || type == KeyType.PageDown || type == KeyType.Home || type == KeyType.End) {
+            if (console != null) {
+                if (type == KeyType.PageUp) {
+                    console.scrollBy(-console.getVisibleRows());
+                } else if (type == KeyType.PageDown) {
+                    console.scrollBy(console.getVisibleRows());
+                } else if (type == KeyType.Home) {
+                    console.scrollTo(0);
+                } else {
+                    console.scrollToBottom();
+                }
+            }
+            return false;
+        } else if (key instanceof MouseAction) {
+            MouseActionType action = ((MouseAction) key).getActionType();
+            if (action == MouseActionType.SCROLL_UP || action == MouseActionType.SCROLL_DOWN) {
+                if (console != null) {
+                    console.scrollBy(action == MouseActionType.SCROLL_UP ? -WHEEL_ROWS : WHEEL_ROWS);
+                }
+                return false;
+            }
+        }
+        return true;
     }
 }
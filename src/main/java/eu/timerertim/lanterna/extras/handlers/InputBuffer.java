@@ -0,0 +1,192 @@
+package eu.timerertim.lanterna.extras.handlers;
+
+import com.googlecode.lanterna.input.KeyStroke;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free ring buffer handing {@code KeyStroke}s from the input thread to their readers.
+ * <p>
+ * Only one thread is allowed to add keys, while any amount of threads may take them. By default keys are never
+ * dropped: If the buffer is full, the adding thread waits until a key was taken, which leaves further
+ * input queued inside of the underlying input provider. As that thread can not do anything else meanwhile,
+ * the buffer can be switched to overwriting, which drops the oldest key instead while no one takes keys.
+ * Threads only park if there is nothing to do for them.
+ */
+class InputBuffer {
+    private final AtomicReferenceArray<KeyStroke> slots;
+    private final long[] times; //Time every key was added at, published together with the key
+    private final int mask;
+    private final AtomicLong head; //Sequence number of the next key to take
+    private final AtomicLong tail; //Sequence number of the next key to add
+    private final Queue<Thread> waitingReaders;
+    private volatile Thread waitingWriter;
+    private volatile boolean closed;
+    private volatile boolean overwriting; //Whether the oldest key is dropped instead of waiting if the buffer is full
+    private volatile long takenTime; //Time the key taken last was added at
+
+    /**
+     * Creates a new buffer able to hold the given amount of keys.
+     *
+     * @param capacity the amount of keys, rounded up to the next power of two
+     */
+    InputBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity has to be positive: " + capacity);
+        }
+
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.times = new long[size];
+        this.mask = size - 1;
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.waitingReaders = new ConcurrentLinkedQueue<>();
+        this.closed = false;
+    }
+
+    /**
+     * Adds a key to the buffer. If it is full, waits for free space or drops the oldest key if overwriting.
+     * Must only be called by one thread.
+     *
+     * @param key the key to add
+     * @return false if the buffer was closed or the thread interrupted before the key could be added
+     */
+    boolean put(KeyStroke key) {
+        long sequence = tail.get();
+        while (sequence - head.get() > mask) {
+            if (overwriting) {
+                // Taken like by a reader, so a reader taking the same key at once simply moves on to the next one
+                long oldest = head.get();
+                if (sequence - oldest > mask) {
+                    head.compareAndSet(oldest, oldest + 1);
+                }
+                continue;
+            }
+
+            // The flag is set before checking again, so a reader taking a key in between always wakes this thread
+            waitingWriter = Thread.currentThread();
+            if (sequence - head.get() > mask && !closed && !overwriting) {
+                LockSupport.park(this);
+            }
+            waitingWriter = null;
+            if (closed || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+
+        times[(int) sequence & mask] = System.nanoTime();
+        slots.set((int) sequence & mask, key);
+        tail.set(sequence + 1);
+        for (Thread reader : waitingReaders) {
+            LockSupport.unpark(reader);
+        }
+        return true;
+    }
+
+    /**
+     * Takes the oldest key out of the buffer without waiting.
+     *
+     * @return the key or null if the buffer is empty
+     */
+    KeyStroke poll() {
+        while (true) {
+            long sequence = head.get();
+            if (sequence == tail.get()) {
+                return null;
+            }
+
+            KeyStroke key = slots.get((int) sequence & mask);
+            long time = times[(int) sequence & mask];
+            if (head.compareAndSet(sequence, sequence + 1)) {
+                takenTime = time;
+                Thread writer = waitingWriter;
+                if (writer != null) {
+                    LockSupport.unpark(writer);
+                }
+                return key;
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest key out of the buffer, waiting for one to be added if it is empty.
+     *
+     * @param timeout the maximum time to wait in nanoseconds, negative to wait without limit
+     * @return the key or null if the timeout elapsed or the buffer was closed
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    KeyStroke take(long timeout) throws InterruptedException {
+        KeyStroke key = poll();
+        if (key != null || timeout == 0) {
+            return key;
+        }
+
+        long deadline = System.nanoTime() + timeout;
+        Thread reader = Thread.currentThread();
+        waitingReaders.add(reader);
+        try {
+            // Registered before checking again, so a key added in between always wakes this thread
+            while ((key = poll()) == null && !closed) {
+                if (timeout < 0) {
+                    LockSupport.park(this);
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return key;
+        } finally {
+            waitingReaders.remove(reader);
+        }
+    }
+
+    /**
+     * Sets whether the oldest key is dropped instead of waiting for free space if the buffer is full.
+     * Wakes up the adding thread if it is waiting.
+     *
+     * @param overwriting whether or not to drop the oldest key
+     */
+    void setOverwriting(boolean overwriting) {
+        this.overwriting = overwriting;
+        Thread writer = waitingWriter;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Returns the time the key taken last was added to the buffer.
+     * Only meaningful if keys are taken by one thread.
+     *
+     * @return the time as given by {@link System#nanoTime()}
+     */
+    long getTakenTime() {
+        return takenTime;
+    }
+
+    /**
+     * Closes the buffer and wakes up all waiting threads.
+     * Keys remaining in the buffer can still be taken.
+     */
+    void close() {
+        closed = true;
+        for (Thread reader : waitingReaders) {
+            LockSupport.unpark(reader);
+        }
+        Thread writer = waitingWriter;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.googlecode.lanterna.input.KeyStroke;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This libraries InputListeners are classes,
@@ -16,16 +17,46 @@ import java.io.IOException;
  */
 public interface InputListener extends Runnable, Closeable {
     /**
-     * Returns the next {@code Key} provided by the input queue from now on, blocking until that very moment.
+     * Returns the next {@code Key} off the input queue, blocking until one is available.
      * The input queue is provided by the {@link com.googlecode.lanterna.input.InputProvider InputProvider} this
      * InputListener is handling.
      * <p>
+     * Keys made while no one was reading are buffered, so no input is lost in between two calls.
+     * <p>
      * NOTE: This method is blocking.
      *
-     * @return the transmitted {@code Key}
+     * @return the transmitted {@code Key} or null if this InputListener was closed or the thread interrupted
      */
     KeyStroke readInput();
 
+    /**
+     * Returns the next {@code Key} off the input queue, blocking until one is available or the timeout elapsed.
+     * Works exactly like {@link InputListener#readInput()} otherwise.
+     * <p>
+     * The default implementation polls the input queue every millisecond until the timeout elapsed.
+     * <p>
+     * NOTE: This method is blocking.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return the transmitted {@code Key} or null if the timeout elapsed, this InputListener was closed or the thread interrupted
+     */
+    default KeyStroke readInput(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            KeyStroke key;
+            while ((key = pollInput()) == null && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            return key;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
     /**
      * Returns the next {@code Key} off the input queue or null if there is no more input events available.
      * The input queue is provided by the {@link com.googlecode.lanterna.input.InputProvider InputProvider} this
@@ -38,6 +69,21 @@ public interface InputListener extends Runnable, Closeable {
     KeyStroke pollInput() throws IOException;
 
 
+    /**
+     * Returns the time the {@code Key} returned last by {@link InputListener#readInput()} or
+     * {@link InputListener#pollInput()} was received from the input queue.
+     * <p>
+     * This can be used to measure the time it took to process the input.
+     * The value is only meaningful if this InputListener is read by only one thread.
+     * <p>
+     * The default implementation returns the current time, as it does not know when the {@code Key} was received.
+     *
+     * @return the time as given by {@link System#nanoTime()}
+     */
+    default long getInputTime() {
+        return System.nanoTime();
+    }
+
     /**
      * Closes this InputListener and releasing it's resources.
      * It stops its activity and stops underlying threads.
@@ -2,12 +2,9 @@ package eu.timerertim.lanterna.extras.utils;
 
 import com.googlecode.lanterna.TerminalTextUtils;
 
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.regex.Pattern;
-
 public class TextUtils {
+    private static final char FIRST_DOUBLE_WIDTH = '\u1100'; //Start of the first block containing CJK characters
+
     /**
      * Applies softwrapping on the String of text.
      * <p>
@@ -19,32 +16,211 @@ public class TextUtils {
      * @return String array containing the line in a softwrapped format
      */
     public static String[] applySoftwrapping(String line, int columns) {
+        if (fitsNarrow(line, 0, columns)) {
+            return new String[]{line};
+        }
         return TerminalTextUtils.getWordWrappedText(columns, line).toArray(String[]::new);
     }
 
+    /**
+     * Applies softwrapping on the text starting at the given index.
+     * <p>
+     * Instead of returning the rows, the start and exclusive end index of every row inside of the text is
+     * written to the given arrays, which is needed to rewrap only parts of a line. Rows are separated by the
+     * whitespace dropped at their line breaks. If the arrays are too small, only the first rows are written
+     * to them. The returned amount of rows is always the total amount though, which allows to retry with
+     * arrays large enough.
+     * <p>
+     * The rows are the same as the ones returned by {@link TextUtils#applySoftwrapping(String, int)}.
+     *
+     * @param line      the text to apply wrapping on
+     * @param start     the index of the first character of the first row
+     * @param columns   the maximum available space per line
+     * @param rowStarts the array the start index of every row is written to
+     * @param rowEnds   the array the end index of every row is written to
+     * @return the amount of rows
+     */
+    public static int applySoftwrapping(CharSequence line, int start, int columns, int[] rowStarts, int[] rowEnds) {
+        if (fitsNarrow(line, start, columns)) {
+            if (rowStarts.length > 0) {
+                rowStarts[0] = start;
+                rowEnds[0] = line.length();
+            }
+            return 1;
+        }
+
+        String[] rows = applySoftwrapping(line.subSequence(start, line.length()).toString(), columns);
+        int index = start;
+        for (int row = 0; row < rows.length; row++) {
+            // Skip the whitespace dropped at the line break
+            int rowStart = index;
+            while (rowStart + rows[row].length() <= line.length() && !regionMatches(line, rowStart, rows[row])) {
+                rowStart++;
+            }
+            if (rowStart + rows[row].length() <= line.length()) {
+                index = rowStart;
+            }
+
+            if (row < rowStarts.length) {
+                rowStarts[row] = index;
+                rowEnds[row] = index + rows[row].length();
+            }
+            index += rows[row].length();
+        }
+        return rows.length;
+    }
+
+    /**
+     * Counts the rows the String of text takes up when softwrapped.
+     * <p>
+     * The result always equals the length of the array returned by
+     * {@link TextUtils#applySoftwrapping(String, int)}.
+     *
+     * @param line    the text to apply wrapping on
+     * @param columns the maximum available space per line
+     * @return the amount of rows
+     */
+    public static int countSoftwrappedRows(String line, int columns) {
+        if (fitsNarrow(line, 0, columns)) {
+            return 1;
+        }
+        return applySoftwrapping(line, columns).length;
+    }
+
     /**
      * Applies hardwrapping on the String of text.
      * <p>
-     * The way this works is by calling {@link TerminalTextUtils#fitString(String, int)}
-     * and appending its output to the end of a list. The maximum available space is
-     * measured in columns.
+     * The line is split into rows in a single pass using {@link TextUtils#applyHardwrapping(CharSequence, int, int, int[])}.
+     * Double width characters, which do not fit at the end of a row anymore, are moved to the next row.
+     * The maximum available space is measured in columns. If it is not positive, no wrapping is applied.
      *
-     * @param line the text to apply wrapping on
+     * @param line    the text to apply wrapping on
      * @param columns the maximum available space per line
      * @return String array containing the line in a hardwrapped format
      */
     public static String[] applyHardwrapping(String line, int columns) {
-        String fitString = TerminalTextUtils.fitString(line, columns);
-        String otherString = line.replaceFirst(Pattern.quote(fitString), ""); // String that doesn't fit in the first line
-        if (otherString.length() > 0) {
-            // Second line also has to be hardwrapped and added to the list
-            List<String> lines = new LinkedList<>();
-            lines.add(fitString);
-            Collections.addAll(lines, applyHardwrapping(otherString, columns));
-            return lines.toArray(String[]::new);
-        } else {
-            // No wrapping needed to be done
-            return new String[]{fitString};
+        int[] rowEnds = new int[line.length() / Math.max(columns, 1) + 1];
+        int rowCount = applyHardwrapping(line, 0, columns, rowEnds);
+        if (rowCount > rowEnds.length) {
+            // Double width characters needed more rows than estimated
+            rowEnds = new int[rowCount];
+            applyHardwrapping(line, 0, columns, rowEnds);
+        }
+
+        String[] rows = new String[rowCount];
+        int rowStart = 0;
+        for (int row = 0; row < rowCount; row++) {
+            rows[row] = line.substring(rowStart, rowEnds[row]);
+            rowStart = rowEnds[row];
+        }
+        return rows;
+    }
+
+    /**
+     * Applies hardwrapping on the text starting at the given index without creating any objects.
+     * <p>
+     * Instead of returning the rows, the exclusive end index of every row is written to the given
+     * array, so it can be reused for multiple lines. If the array is too small, only the first rows
+     * are written to it. The returned amount of rows is always the total amount though, which allows
+     * to retry with an array large enough. Passing null only counts the rows.
+     * <p>
+     * Every row is filled with as many characters as fit into the available columns. Double width
+     * characters take up two columns, like {@link TerminalTextUtils#fitString(String, int)} handles them, and are
+     * moved to the next row if they do not fit anymore. Every row contains at least one character,
+     * so no row is empty unless the text itself is.
+     *
+     * @param line    the text to apply wrapping on
+     * @param start   the index of the first character of the first row
+     * @param columns the maximum available space per line, no wrapping is applied if not positive
+     * @param rowEnds the array the end index of every row is written to, may be null
+     * @return the amount of rows
+     */
+    public static int applyHardwrapping(CharSequence line, int start, int columns, int[] rowEnds) {
+        int rowCount = 0;
+        if (columns > 0) {
+            int rowStart = start;
+            int rowWidth = 0;
+            for (int index = start; index < line.length(); index++) {
+                int charWidth = TerminalTextUtils.isCharCJK(line.charAt(index)) ? 2 : 1;
+                if (rowWidth + charWidth > columns && index > rowStart) {
+                    // Character does not fit into this row anymore
+                    if (rowEnds != null && rowCount < rowEnds.length) {
+                        rowEnds[rowCount] = index;
+                    }
+                    rowCount++;
+                    rowStart = index;
+                    rowWidth = 0;
+                }
+                rowWidth += charWidth;
+            }
+        }
+
+        // Last row always ends with the line
+        if (rowEnds != null && rowCount < rowEnds.length) {
+            rowEnds[rowCount] = line.length();
+        }
+        return rowCount + 1;
+    }
+
+    /**
+     * Applies hardwrapping on the text starting at the given index.
+     * <p>
+     * Works exactly like {@link TextUtils#applyHardwrapping(CharSequence, int, int, int[])}, but also
+     * writes the start index of every row to an array. This is the same format
+     * {@link TextUtils#applySoftwrapping(CharSequence, int, int, int[], int[])} uses.
+     *
+     * @param line      the text to apply wrapping on
+     * @param start     the index of the first character of the first row
+     * @param columns   the maximum available space per line, no wrapping is applied if not positive
+     * @param rowStarts the array the start index of every row is written to
+     * @param rowEnds   the array the end index of every row is written to
+     * @return the amount of rows
+     */
+    public static int applyHardwrapping(CharSequence line, int start, int columns, int[] rowStarts, int[] rowEnds) {
+        int rowCount = applyHardwrapping(line, start, columns, rowEnds);
+        for (int row = 0; row < Math.min(rowCount, rowStarts.length); row++) {
+            rowStarts[row] = row == 0 ? start : rowEnds[row - 1];
+        }
+        return rowCount;
+    }
+
+    /**
+     * Counts the rows the String of text takes up when hardwrapped.
+     * <p>
+     * The result always equals the length of the array returned by
+     * {@link TextUtils#applyHardwrapping(String, int)}.
+     *
+     * @param line    the text to apply wrapping on
+     * @param columns the maximum available space per line
+     * @return the amount of rows
+     */
+    public static int countHardwrappedRows(String line, int columns) {
+        return applyHardwrapping(line, 0, columns, null);
+    }
+
+    /**
+     * Checks whether the text starting at the given index fits into one row without looking up the width
+     * of every character, which is expensive. Only characters below the first CJK block are accepted,
+     * as they can not be double width. Rows fitting are never changed by softwrapping.
+     */
+    private static boolean fitsNarrow(CharSequence line, int start, int columns) {
+        if (line.length() - start > columns) {
+            return false;
+        }
+        for (int index = start; index < line.length(); index++) {
+            if (line.charAt(index) >= FIRST_DOUBLE_WIDTH) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionMatches(CharSequence text, int offset, String other) {
+        for (int index = 0; index < other.length(); index++) {
+            if (text.charAt(offset + index) != other.charAt(index)) {
+                return false;
+            }
         }
+        return true;
     }
 }
@@ -7,7 +7,7 @@ public enum WrappingMode {
      * Lines are printed as they are. If they are too long,
      * the last part will not be displayed.
      */
-    NONE((line, columns) -> new String[]{line}),
+    NONE((line, columns) -> new String[]{line}, (line, columns) -> 1, WrappingMode::applyNoWrapping),
 
     /**
      * Word based wrapping.
@@ -20,7 +20,7 @@ public enum WrappingMode {
      * If a word is too long to fit in a line, that word will be
      * wrapped using hardwrapping. Refer to {@link WrappingMode#HARDWRAPPING}.
      */
-    SOFTWRAPPING(TextUtils::applySoftwrapping),
+    SOFTWRAPPING(TextUtils::applySoftwrapping, TextUtils::countSoftwrappedRows, TextUtils::applySoftwrapping),
 
     /**
      * Non word based wrapping.
@@ -32,19 +32,70 @@ public enum WrappingMode {
      * <p>
      * An alternative more appealing to the eye is {@link WrappingMode#SOFTWRAPPING}.
      */
-    HARDWRAPPING(TextUtils::applyHardwrapping);
+    HARDWRAPPING(TextUtils::applyHardwrapping, TextUtils::countHardwrappedRows, TextUtils::applyHardwrapping);
 
     private final Wrapping wrapping;
+    private final RowCounting rowCounting;
+    private final RowBounding rowBounding;
 
-    WrappingMode(Wrapping wrapping) {
+    WrappingMode(Wrapping wrapping, RowCounting rowCounting, RowBounding rowBounding) {
         this.wrapping = wrapping;
+        this.rowCounting = rowCounting;
+        this.rowBounding = rowBounding;
     }
 
     public String[] wrap(String line, int columns) {
         return wrapping.wrap(line, columns);
     }
 
+    /**
+     * Counts the rows the line takes up when wrapped, which is the length of the
+     * array {@link WrappingMode#wrap(String, int)} would return.
+     *
+     * @param line    the text to apply wrapping on
+     * @param columns the maximum available space per line
+     * @return the amount of rows
+     */
+    public int countRows(String line, int columns) {
+        return rowCounting.countRows(line, columns);
+    }
+
+    /**
+     * Wraps the line starting at the given index, writing the start and exclusive end index of every row
+     * to the given arrays instead of creating the rows.
+     * <p>
+     * As the wrapping of previous rows never depends on the text following them, this can be used to only
+     * rewrap a line from the start of its last row after text was appended to it. If the arrays are too
+     * small, only the first rows are written. The total amount of rows is returned nevertheless.
+     *
+     * @param line      the text to apply wrapping on
+     * @param start     the index of the first character of the first row
+     * @param columns   the maximum available space per line
+     * @param rowStarts the array the start index of every row is written to
+     * @param rowEnds   the array the end index of every row is written to
+     * @return the amount of rows
+     */
+    public int wrap(CharSequence line, int start, int columns, int[] rowStarts, int[] rowEnds) {
+        return rowBounding.wrap(line, start, columns, rowStarts, rowEnds);
+    }
+
+    private static int applyNoWrapping(CharSequence line, int start, int columns, int[] rowStarts, int[] rowEnds) {
+        if (rowStarts.length > 0) {
+            rowStarts[0] = start;
+            rowEnds[0] = line.length();
+        }
+        return 1;
+    }
+
     private interface Wrapping {
         String[] wrap(String line, int columns);
     }
+
+    private interface RowCounting {
+        int countRows(String line, int columns);
+    }
+
+    private interface RowBounding {
+        int wrap(CharSequence line, int start, int columns, int[] rowStarts, int[] rowEnds);
+    }
 }
@@ -0,0 +1,49 @@
+package eu.timerertim.lanterna.extras.test.console;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentPrintTest extends HeadlessConsoleFixture {
+    private static final int WORKERS = 8;
+    private static final int LINES = 1000;
+    private static final Pattern LINE = Pattern.compile("Worker (\\d) line (\\d+)");
+
+    @Test
+    public void printFromManyThreads() throws IOException, InterruptedException {
+        console.setConcurrent(true);
+        Thread[] workers = new Thread[WORKERS];
+        for (int index = 0; index < workers.length; index++) {
+            int worker = index;
+            workers[index] = new Thread(() -> {
+                for (int line = 0; line < LINES; line++) {
+                    console.println("Worker " + worker + " line " + line);
+                }
+            });
+            workers[index].start();
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        console.setConcurrent(false); //Applies the remaining text
+        assertEquals("Every line should arrive", WORKERS * LINES + 1, console.getMetrics().getScrollbackLines());
+
+        // Scrolling stops once the last lines are visible, so those are read from lower rows
+        int bottomLine = WORKERS * LINES + 1 - console.getVisibleRows();
+        int[] nextLines = new int[WORKERS];
+        for (int line = 0; line < WORKERS * LINES; line++) {
+            console.scrollTo(line);
+            console.update();
+            String row = readRow(line - Math.min(line, bottomLine));
+            Matcher matcher = LINE.matcher(row);
+            assertTrue("Lines should not be mixed: " + row, matcher.matches());
+            int worker = Integer.parseInt(matcher.group(1));
+            assertEquals("The lines of every thread should stay in order", nextLines[worker]++, Integer.parseInt(matcher.group(2)));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package eu.timerertim.lanterna.extras.test.console;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConsoleStreamTest extends HeadlessConsoleFixture {
+    @Test
+    public void parseAnsiStream() throws IOException {
+        OutputStream stream = console.newOutputStream(StandardCharsets.UTF_8);
+        byte[] bytes = "\u001B[31mRed\u001B[0m plain\n\u001B[2K\u001B]0;title\u0007\u00DCbel\r\nprogress 1\rprogress 2".getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            stream.write(new byte[]{b}); //Splits every escape sequence and character
+        }
+        console.update();
+
+        assertEquals("Escape sequences should be removed", "Red plain", readRow(0));
+        assertEquals("SGR sequences should be applied", TextColor.ANSI.RED, console.getTerminal().getCharacter(0, 0).getForegroundColor());
+        assertEquals("SGR resets should be applied", console.getTextColor(), console.getTerminal().getCharacter(4, 0).getForegroundColor());
+        assertEquals("Characters split across writes should be decoded", "\u00DCbel", readRow(1));
+        assertEquals("Carriage returns should replace the line", "progress 2", readRow(2));
+        stream.close();
+    }
+
+    @Test
+    public void parseExtendedColors() throws IOException {
+        OutputStream stream = console.newOutputStream(StandardCharsets.UTF_8);
+        stream.write(("\u001B[38;2;10;20;30;48;5;100mSemi\u001B[0m\n" +
+                "\u001B[38:2::10:20:30;48:5:100mColon\u001B[0m\n" +
+                "\u001B[38:2:10:20:30mShort\u001B[0m\n" +
+                "\u001B[4:3mCurly\u001B[4:0mFlat").getBytes(StandardCharsets.UTF_8));
+        stream.flush();
+        console.update();
+
+        for (int row = 0; row < 2; row++) {
+            TextCharacter character = console.getTerminal().getCharacter(0, row);
+            assertEquals("RGB colors should be read in both forms", new TextColor.RGB(10, 20, 30), character.getForegroundColor());
+            assertEquals("Indexed colors should be read in both forms", new TextColor.Indexed(100), character.getBackgroundColor());
+            assertTrue("Color components should not be applied as codes", character.getModifiers().isEmpty());
+        }
+        assertEquals("RGB colors without a color space should be read", new TextColor.RGB(10, 20, 30),
+                console.getTerminal().getCharacter(0, 2).getForegroundColor());
+        assertTrue("Underline styles should be shown as underlines", console.getTerminal().getCharacter(0, 3).getModifiers().contains(SGR.UNDERLINE));
+        assertFalse("Underline sub-parameters should not reset the style", console.getTerminal().getCharacter(5, 3).getModifiers().contains(SGR.UNDERLINE));
+        assertEquals("Curly underlines should keep the default color", console.getTextColor(), console.getTerminal().getCharacter(0, 3).getForegroundColor());
+        stream.close();
+    }
+}
@@ -0,0 +1,49 @@
+package eu.timerertim.lanterna.extras.test.console;
+
+import eu.timerertim.lanterna.extras.console.FileView;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+public class FileViewTest extends HeadlessConsoleFixture {
+    @Test
+    public void viewMappedFile() throws IOException, InterruptedException {
+        Path file = Files.createTempFile("console", ".log");
+        file.toFile().deleteOnExit(); //Mapped files can not be deleted on every platform while still mapped
+        StringBuilder text = new StringBuilder();
+        for (int line = 0; line < 5000; line++) {
+            text.append("Line ").append(line).append("\r\n");
+        }
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+        console.println("Printed line");
+        FileView view = console.viewFile(file, StandardCharsets.UTF_8);
+        console.update();
+        assertEquals("The file should be shown in place of the content", "Line 0", readRow(0));
+        if (!view.isIndexed()) {
+            assertEquals("Lines should not be counted before the file was indexed", -1, view.getLineCount());
+        }
+
+        view.scrollToLine(4500); //Delayed until the file was indexed
+        awaitRow(console, 0, "Line 4500");
+
+        view.scrollToLine(4000);
+        view.scrollBy(-1);
+        console.update();
+        assertEquals("Scrolling should show the requested line", "Line 3999", readRow(0));
+        assertEquals("Lines should be counted without the terminator at the end", 5000, view.getLineCount());
+
+        view.scrollToLine(Long.MAX_VALUE);
+        console.update();
+        assertEquals("Scrolling should stop at the end of the file", "Line 4999", readRow(3));
+
+        view.close();
+        console.update();
+        assertEquals("Closing the view should show the content again", "Printed line", readRow(0));
+    }
+}
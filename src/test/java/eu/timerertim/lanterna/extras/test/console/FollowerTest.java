@@ -0,0 +1,50 @@
+package eu.timerertim.lanterna.extras.test.console;
+
+import com.googlecode.lanterna.TextColor;
+import eu.timerertim.lanterna.extras.console.Follower;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FollowerTest extends HeadlessConsoleFixture {
+    @Test
+    public void followGrowingFile() throws IOException, InterruptedException {
+        Path file = Files.createTempFile("console", ".log");
+        file.toFile().deleteOnExit();
+        Files.write(file, "Old line\n".getBytes(StandardCharsets.UTF_8));
+
+        Follower follower = console.follow(file, StandardCharsets.UTF_8);
+        Files.write(file, "New \u001B[32mline\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        awaitRow(console, 0, "New line");
+        assertEquals("Appended escape sequences should be applied", TextColor.ANSI.GREEN,
+                console.getTerminal().getCharacter(4, 0).getForegroundColor());
+
+        Files.write(file, "Rotated\n".getBytes(StandardCharsets.UTF_8));
+        awaitRow(console, 1, "Rotated");
+        follower.close();
+        assertTrue("Closing should stop following", !follower.isAlive() || waitForEnd(follower));
+
+        Follower channelFollower = console.follow(Channels.newChannel(
+                new ByteArrayInputStream("From channel".getBytes(StandardCharsets.UTF_8))), StandardCharsets.UTF_8);
+        assertTrue("Following a channel should stop at its end", waitForEnd(channelFollower));
+        console.update();
+        assertEquals("Text read from a channel should be printed", "From channel", readRow(2));
+    }
+
+    private static boolean waitForEnd(Follower follower) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (follower.isAlive() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return !follower.isAlive();
+    }
+}
@@ -0,0 +1,65 @@
+package eu.timerertim.lanterna.extras.test.console;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.terminal.virtual.VirtualTerminal;
+import eu.timerertim.lanterna.extras.console.HeadlessConsole;
+import org.junit.After;
+import org.junit.Before;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Base of the tests drawing to a {@link HeadlessConsole}, which is created before and closed after every test.
+ * The console has 20 columns and 5 rows and is only updated when the test calls {@link HeadlessConsole#update()}.
+ */
+public abstract class HeadlessConsoleFixture {
+    protected HeadlessConsole console;
+
+    @Before
+    public void createConsole() throws IOException {
+        console = new HeadlessConsole(new TerminalSize(20, 5), false);
+    }
+
+    @After
+    public void closeConsole() {
+        console.close();
+    }
+
+    /**
+     * Reads a row of the console as drawn by its last update.
+     *
+     * @return the characters of the row without surrounding whitespace
+     */
+    protected String readRow(int row) {
+        return readRow(console.getTerminal(), row);
+    }
+
+    static void awaitRow(VirtualTerminal terminal, int row, String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!readRow(terminal, row).equals(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("The expected row should be drawn in time", expected, readRow(terminal, row));
+    }
+
+    static void awaitRow(HeadlessConsole console, int row, String expected) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        String actual;
+        do {
+            Thread.sleep(10);
+            console.update();
+            actual = readRow(console.getTerminal(), row);
+        } while (!actual.equals(expected) && System.currentTimeMillis() < deadline);
+        assertEquals("The expected row should be drawn in time", expected, actual);
+    }
+
+    static String readRow(VirtualTerminal terminal, int row) {
+        StringBuilder line = new StringBuilder();
+        for (int column = 0; column < terminal.getTerminalSize().getColumns(); column++) {
+            line.append(terminal.getCharacter(column, row).getCharacter());
+        }
+        return line.toString().trim();
+    }
+}
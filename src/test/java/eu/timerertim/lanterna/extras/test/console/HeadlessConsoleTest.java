@@ -0,0 +1,248 @@
+package eu.timerertim.lanterna.extras.test.console;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import eu.timerertim.lanterna.extras.console.ConsoleMetricsListener;
+import eu.timerertim.lanterna.extras.console.HeadlessConsole;
+import eu.timerertim.lanterna.extras.console.TextStyle;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HeadlessConsoleTest extends HeadlessConsoleFixture {
+    @Test
+    public void drawToVirtualTerminal() throws IOException {
+        console.println("First line");
+        console.print("Second");
+        console.update();
+        assertEquals("The first line should be drawn", "First line", readRow(0));
+        assertEquals("The current line should be drawn", "Second", readRow(1));
+    }
+
+    @Test
+    public void printlnRedrawsChangedRowsOnly() throws IOException {
+        console.println("First line");
+        console.resetCounters();
+
+        console.println("Second line");
+        assertEquals("Only the printed row should be redrawn", 1, console.getRowsRedrawn());
+        assertEquals("Only the cells of the printed row should be written", 20, console.getCellsWritten());
+        assertEquals("Nothing should be refreshed without an update", 0, console.getRefreshes());
+
+        console.update();
+        assertEquals("An update should refresh once", 1, console.getRefreshes());
+    }
+
+    @Test
+    public void scrollingRedrawsNewRowsOnly() throws IOException {
+        for (int line = 1; line <= 10; line++) {
+            console.println("Line " + line);
+        }
+        console.update();
+        console.resetCounters();
+
+        console.println("Line 11");
+        assertEquals("Only the rows scrolled into view should be redrawn", 2, console.getRowsRedrawn());
+        console.update();
+        assertEquals("Scrolled rows should keep their content", "Line 9", readRow(0));
+        assertEquals("The printed line should be drawn below them", "Line 11", readRow(2));
+        assertEquals("Rows scrolled into view should use the background color", console.getBackgroundColor(),
+                console.getTerminal().getCharacter(0, 3).getBackgroundColor());
+    }
+
+    @Test
+    public void scrollHistory() throws IOException, InterruptedException {
+        for (int line = 0; line < 100; line++) {
+            console.println("Line " + line);
+        }
+
+        console.scrollTo(10);
+        console.println("Line 100");
+        console.update();
+        assertEquals("Scrolling back should show the requested line", "Line 10", readRow(0));
+        console.scrollBy(-5);
+        console.update();
+        assertEquals("Scrolling by rows should move the view", "Line 5", readRow(0));
+
+        console.getTerminal().addInput(new KeyStroke(KeyType.PageDown));
+        awaitRow(console, 0, "Line 9");
+        console.getTerminal().addInput(new KeyStroke(KeyType.End));
+        awaitRow(console, 2, "Line 100");
+        console.println("Line 101");
+        console.update();
+        assertEquals("Automatic scrolling should continue at the bottom", "Line 101", readRow(2));
+    }
+
+    @Test
+    public void scrollAfterUnreadKeys() throws Exception {
+        for (int line = 0; line < 100; line++) {
+            console.println("Line " + line);
+        }
+        for (int key = 0; key < 2000; key++) {
+            console.getTerminal().addInput(new KeyStroke('x', false, false)); //More than the input buffer holds
+        }
+        console.getTerminal().addInput(new KeyStroke(KeyType.Home));
+        awaitRow(console, 0, "Line 0");
+
+        CompletableFuture<String> line = console.readLineAsync();
+        console.getTerminal().addInput(new KeyStroke(KeyType.Enter));
+        assertTrue("Only the keys made last should be kept for reading",
+                line.get(5, TimeUnit.SECONDS).length() <= 1024);
+    }
+
+    @Test
+    public void animateText() throws IOException, InterruptedException {
+        console.setSkipTextAnimationKey(KeyType.Escape);
+        console.println("Typed out slowly");
+        console.print("Next");
+        console.update();
+        assertTrue("The text should not be shown at once", readRow(0).length() < "Typed out slowly".length());
+
+        console.getTerminal().addInput(new KeyStroke(KeyType.Escape));
+        awaitRow(console, 1, "Next");
+        assertEquals("Skipping should show the whole text", "Typed out slowly", readRow(0));
+        assertTrue("Nothing should be left to skip", !console.skipTextAnimation());
+
+        console.println("Animated");
+        awaitRow(console, 1, "NextAnimated");
+    }
+
+    @Test
+    public void skipAfterUnreadKeys() throws IOException, InterruptedException {
+        console.setSkipTextAnimationKey(KeyType.Escape);
+        for (int key = 0; key < 2000; key++) {
+            console.getTerminal().addInput(new KeyStroke('x', false, false)); //More than the input buffer holds
+        }
+        StringBuilder text = new StringBuilder();
+        for (int character = 0; character < 400; character++) {
+            text.append('a'); //Takes 8 seconds to type out
+        }
+        console.println(text.toString());
+        console.print("Next");
+
+        console.getTerminal().addInput(new KeyStroke(KeyType.Escape));
+        awaitRow(console, 3, "Next");
+        assertTrue("Nothing should be left to skip", !console.skipTextAnimation());
+    }
+
+    @Test
+    public void renderOnDemand() throws IOException, InterruptedException {
+        HeadlessConsole autoUpdated = new HeadlessConsole(new TerminalSize(20, 5), true);
+        autoUpdated.addMetricsListener(new ConsoleMetricsListener() {
+            private boolean failed;
+
+            @Override
+            public void onRefresh(long refreshTime, long frameLatency, int redrawnRows) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("Failing listener");
+                }
+            }
+        });
+
+        autoUpdated.println("First frame");
+        awaitRow(autoUpdated.getTerminal(), 0, "First frame");
+        autoUpdated.println("Next frame");
+        awaitRow(autoUpdated.getTerminal(), 1, "Next frame");
+        autoUpdated.close();
+    }
+
+    @Test
+    public void coalesceReadLineRedraws() throws Exception {
+        StringBuilder paste = new StringBuilder();
+        for (int index = 0; index < 2000; index++) {
+            paste.append((char) ('a' + index % 26));
+        }
+        CompletableFuture<String> line = console.readLineAsync();
+        console.resetCounters();
+        for (char character : paste.toString().toCharArray()) {
+            console.getTerminal().addInput(new KeyStroke(character, false, false));
+        }
+        console.getTerminal().addInput(new KeyStroke(KeyType.Enter));
+
+        assertEquals("Every pasted key should be applied", paste.toString(), line.get(5, TimeUnit.SECONDS));
+        assertTrue("Pasted keys should be drawn together", console.getRefreshes() < paste.length() / 10);
+    }
+
+    @Test
+    public void drawStyledRuns() throws IOException {
+        console.println("Plain line");
+        console.print("Red", new TextStyle(TextColor.ANSI.RED, null));
+        console.print(" and ");
+        console.println("bold", new TextStyle(null, TextColor.ANSI.BLUE, SGR.BOLD));
+        console.resetCounters();
+
+        console.update();
+        TextCharacter red = console.getTerminal().getCharacter(0, 1);
+        TextCharacter plain = console.getTerminal().getCharacter(4, 1);
+        TextCharacter bold = console.getTerminal().getCharacter(8, 1);
+        assertEquals("Styled text should be drawn", "Red and bold", readRow(1));
+        assertEquals("The foreground of the style should be applied", TextColor.ANSI.RED, red.getForegroundColor());
+        assertEquals("Unstyled text should use the text color", console.getTextColor(), plain.getForegroundColor());
+        assertEquals("The background of the style should be applied", TextColor.ANSI.BLUE, bold.getBackgroundColor());
+        assertTrue("The modifiers of the style should be applied", bold.getModifiers().contains(SGR.BOLD));
+        assertEquals("Rows behind the text should use the background color", console.getBackgroundColor(),
+                console.getTerminal().getCharacter(15, 1).getBackgroundColor());
+
+        console.print("Green", new TextStyle(TextColor.ANSI.GREEN, null));
+        assertEquals("Changing the style should only redraw the printed row", 1, console.getRowsRedrawn());
+    }
+
+    @Test
+    public void releaseStylesOfEvictedLines() throws IOException {
+        console.setScrollbackLimit(100);
+        for (int line = 0; line < 100000; line++) {
+            console.println("Gradient", new TextStyle(new TextColor.RGB(line & 0xFF, (line >> 8) & 0xFF, line >> 16), null));
+        }
+        assertTrue("The styles of evicted lines should be released", console.getScrollbackMemoryUsage() < 1 << 20);
+
+        console.update();
+        assertEquals("The styles of kept lines should stay the same", new TextColor.RGB(99999 & 0xFF, (99999 >> 8) & 0xFF, 99999 >> 16),
+                console.getTerminal().getCharacter(0, 2).getForegroundColor());
+        console.scrollTo(0);
+        console.update();
+        assertEquals("The styles of kept lines should stay the same", new TextColor.RGB(99901 & 0xFF, (99901 >> 8) & 0xFF, 99901 >> 16),
+                console.getTerminal().getCharacter(0, 0).getForegroundColor());
+    }
+
+    @Test
+    public void reportMetrics() throws IOException {
+        console.update();
+        List<Integer> redrawnRows = new ArrayList<>();
+        ConsoleMetricsListener listener = new ConsoleMetricsListener() {
+            @Override
+            public void onRefresh(long refreshTime, long frameLatency, int rows) {
+                redrawnRows.add(rows);
+            }
+        };
+        console.addMetricsListener(listener);
+        console.setMetricsEnabled(true);
+
+        console.println("First line");
+        console.println("Second line");
+        console.update();
+        assertEquals("Print operations should be counted", 2, console.getMetrics().getPrintCount());
+        assertEquals("Refreshes should be counted", 1, console.getMetrics().getRefreshCount());
+        assertEquals("Redrawn rows should be reported per refresh", Collections.singletonList(2), redrawnRows);
+        assertEquals("Lines should be counted including the current one", 3, console.getMetrics().getScrollbackLines());
+
+        console.removeMetricsListener(listener);
+        console.setMetricsEnabled(false);
+        console.println("Third line");
+        console.update();
+        assertEquals("Nothing should be measured while disabled", 2, console.getMetrics().getPrintCount());
+        assertEquals("Removed listeners should not be called", 1, redrawnRows.size());
+    }
+}
@@ -0,0 +1,53 @@
+package eu.timerertim.lanterna.extras.test.console;
+
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReadLineAsyncTest extends HeadlessConsoleFixture {
+    @Test
+    public void completeWithEnteredLine() throws Exception {
+        console.setReadLinePrompt(">");
+        CompletableFuture<String> line = console.readLineAsync();
+        assertTrue("Reading should not wait for the input", !line.isDone());
+
+        type("helo");
+        console.getTerminal().addInput(new KeyStroke(KeyType.ArrowLeft));
+        type("l");
+        awaitRow(console, console.getVisibleRows(), ">hello");
+        console.println("Printed meanwhile");
+        console.update();
+        assertEquals("Printed text should be shown above the input", "Printed meanwhile", readRow(0));
+        assertEquals("Printed text should not affect the input", ">hello", readRow(console.getVisibleRows()));
+
+        console.getTerminal().addInput(new KeyStroke(KeyType.Enter));
+        assertEquals("The future should complete with the entered line", "hello", line.get(5, TimeUnit.SECONDS));
+        awaitRow(console, console.getVisibleRows(), "");
+    }
+
+    @Test
+    public void completeWithNullOnClose() throws Exception {
+        CompletableFuture<String> line = console.readLineAsync();
+        console.close();
+        assertNull("Closing should complete the future without input", line.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectSecondLine() {
+        console.readLineAsync();
+        console.readLineAsync();
+    }
+
+    private void type(String text) {
+        for (char character : text.toCharArray()) {
+            console.getTerminal().addInput(new KeyStroke(character, false, false));
+        }
+    }
+}
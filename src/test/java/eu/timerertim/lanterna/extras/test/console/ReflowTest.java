@@ -0,0 +1,80 @@
+package eu.timerertim.lanterna.extras.test.console;
+
+import com.googlecode.lanterna.TerminalSize;
+import eu.timerertim.lanterna.extras.console.ConsoleMetricsListener;
+import eu.timerertim.lanterna.extras.utils.WrappingMode;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+public class ReflowTest extends HeadlessConsoleFixture {
+    private static final int LINES = 10000;
+
+    private final Semaphore reflows = new Semaphore(0);
+
+    @Before
+    public void printLines() {
+        console.addMetricsListener(new ConsoleMetricsListener() {
+            @Override
+            public void onReflow(long wrapTime) {
+                reflows.release();
+            }
+        });
+        console.setWrapping(WrappingMode.HARDWRAPPING);
+        awaitReflow();
+        for (int line = 0; line < LINES; line++) {
+            console.println(String.format("Line %05d", line) + "-----------------------"); //Two rows of 20 columns
+        }
+    }
+
+    @Test
+    public void reflowOnWrappingChange() throws IOException {
+        assertRowsPerLine(2);
+
+        console.setWrapping(WrappingMode.NONE);
+        awaitReflow();
+        assertRowsPerLine(1);
+    }
+
+    @Test
+    public void reflowOnResize() throws IOException {
+        console.getTerminal().setTerminalSize(new TerminalSize(10, 5));
+        console.update(); //Applies the resize
+        awaitReflow();
+        assertRowsPerLine(4);
+
+        console.getTerminal().setTerminalSize(new TerminalSize(40, 5));
+        console.update();
+        awaitReflow();
+        assertRowsPerLine(1);
+    }
+
+    /**
+     * Waits for the visible and the remaining content to be reflowed.
+     */
+    private void awaitReflow() {
+        try {
+            assertTrue("The content should be reflowed in time", reflows.tryAcquire(2, 5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Scrolls by rows from the top, which only shows the expected line if the rows of every line in front of it were counted.
+     */
+    private void assertRowsPerLine(int rows) throws IOException {
+        for (int line : new int[]{1, LINES / 2, LINES - 100}) {
+            console.scrollTo(0);
+            console.scrollBy(line * rows);
+            console.update();
+            assertTrue("Line " + line + " should be shown after " + line * rows + " rows",
+                    readRow(0).startsWith(String.format("Line %05d", line)));
+        }
+    }
+}
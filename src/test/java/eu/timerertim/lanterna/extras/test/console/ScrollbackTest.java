@@ -0,0 +1,71 @@
+package eu.timerertim.lanterna.extras.test.console;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScrollbackTest extends HeadlessConsoleFixture {
+    @Test
+    public void evictOldestLines() throws IOException {
+        console.setScrollbackLimit(100);
+        for (int line = 0; line < 1000; line++) {
+            console.println("Line " + line);
+        }
+        assertEquals("Only the limit of lines should be kept", 100, console.getMetrics().getScrollbackLines());
+        console.scrollTo(0);
+        console.update();
+        assertEquals("The oldest lines should be evicted", "Line 901", readRow(0));
+
+        console.scrollTo(50);
+        console.println("Line 1000");
+        console.update();
+        assertEquals("Evicting lines should keep the visible content", "Line 951", readRow(0));
+        long memoryUsage = console.getScrollbackMemoryUsage();
+
+        console.setScrollbackLimit(10);
+        assertEquals("Lines exceeding a new limit should be evicted immediately", 10, console.getMetrics().getScrollbackLines());
+        assertTrue("Evicted lines should not use memory anymore", console.getScrollbackMemoryUsage() < memoryUsage);
+        console.scrollTo(0);
+        console.update();
+        assertEquals("The oldest line kept should be shown first", "Line 992", readRow(0));
+
+        console.setScrollbackLimit(0);
+        for (int line = 1001; line < 1100; line++) {
+            console.println("Line " + line);
+        }
+        assertEquals("No lines should be evicted without a limit", 109, console.getMetrics().getScrollbackLines());
+    }
+
+    @Test
+    public void storeCompactly() throws IOException {
+        console.println("Before switching");
+        console.setCompactScrollback(true);
+        assertTrue("The compact storage should be used", console.isCompactScrollback());
+        for (int line = 0; line < 100000; line++) {
+            console.println(line % 2 == 0 ? "Caf\u00E9 " + line : "\u0394\u6F22 " + line); //Latin-1 and UTF-16 lines
+        }
+        console.setScrollbackLimit(50001);
+
+        console.scrollTo(0);
+        console.update();
+        assertEquals("Latin-1 lines should be read back", "Caf\u00E9 50000", readRow(0));
+        assertEquals("UTF-16 lines should be read back", "\u0394\u6F22 50001", readRow(1));
+        console.scrollTo(49996);
+        console.update();
+        assertEquals("Lines behind the first chunk should be read back", "Caf\u00E9 99998", readRow(2));
+        assertEquals("Lines behind the first chunk should be read back", "\u0394\u6F22 99999", readRow(3));
+
+        console.setCompactScrollback(false);
+        console.scrollTo(0);
+        console.update();
+        assertEquals("Lines should be moved out of the compact storage", "Caf\u00E9 50000", readRow(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectNegativeLimit() {
+        console.setScrollbackLimit(-1);
+    }
+}
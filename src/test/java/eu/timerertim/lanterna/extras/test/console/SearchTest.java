@@ -0,0 +1,48 @@
+package eu.timerertim.lanterna.extras.test.console;
+
+import com.googlecode.lanterna.TextColor;
+import eu.timerertim.lanterna.extras.console.Search;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SearchTest extends HeadlessConsoleFixture {
+    @Test
+    public void searchHistory() throws IOException {
+        console.setSearchIndexed(true);
+        for (int line = 0; line < 3000; line++) {
+            console.println(line % 1000 == 500 ? "Found needle " + line : "Line " + line);
+        }
+        console.update();
+
+        Search search = console.search("needle");
+        assertEquals("Every occurrence should be found", 3, search.getMatchCount());
+        assertTrue("Moving to the first match should succeed", search.next());
+        console.update();
+        assertEquals("The console should scroll to the match", "Found needle 500", readRow(2));
+        assertEquals("The current match should be highlighted", TextColor.ANSI.YELLOW,
+                console.getTerminal().getCharacter(6, 2).getBackgroundColor());
+        assertEquals("Text around the match should not be highlighted", console.getBackgroundColor(),
+                console.getTerminal().getCharacter(5, 2).getBackgroundColor());
+
+        console.println("Another needle");
+        console.update();
+        assertEquals("Printed lines should be searched", 4, search.getMatchCount());
+        assertEquals("Moving to a match should pause automatic scrolling", "Found needle 500", readRow(2));
+        assertTrue("There should be no match in front of the first one", !search.previous());
+        assertTrue("Moving to the match printed last should succeed", search.next() && search.next() && search.next());
+        assertTrue("There should be no match behind the last one", !search.next());
+        console.update();
+        assertEquals("The console should scroll to the last match", "Another needle", readRow(2));
+
+        Search pattern = console.search(Pattern.compile("needle 2\\d+"));
+        assertEquals("Pattern matches should be found", 1, pattern.getMatchCount());
+        pattern.close();
+        console.update();
+        assertEquals("Closing the search should follow the bottom again", "Another needle", readRow(2));
+    }
+}
@@ -0,0 +1,60 @@
+package eu.timerertim.lanterna.extras.test.console;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+import eu.timerertim.lanterna.extras.console.HeadlessConsole;
+import eu.timerertim.lanterna.extras.console.TextStyle;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SessionSnapshotTest extends HeadlessConsoleFixture {
+    @Test
+    public void restoreSnapshot() throws IOException {
+        Path file = Files.createTempFile("console", ".snapshot");
+        file.toFile().deleteOnExit(); //Mapped files can not be deleted on every platform while still mapped
+        for (int line = 0; line < 5000; line++) {
+            console.println("Line " + line);
+        }
+        console.println("Styled \u0394", new TextStyle(new TextColor.Indexed(208), null, SGR.BOLD));
+        console.print("Open", new TextStyle(new TextColor.RGB(1, 2, 3), TextColor.ANSI.BLUE));
+        console.saveSnapshot(file);
+        console.close();
+
+        HeadlessConsole restored = new HeadlessConsole(new TerminalSize(20, 5), false);
+        restored.println("Replaced line");
+        restored.restoreSnapshot(file);
+        restored.update();
+        assertEquals("The restored history should be shown", "Line 4999", readRow(restored.getTerminal(), 1));
+        assertEquals("Lines which are not Latin-1 should be restored", "Styled \u0394", readRow(restored.getTerminal(), 2));
+        assertEquals("The line still being printed to should be restored", "Open", readRow(restored.getTerminal(), 3));
+        TextCharacter styled = restored.getTerminal().getCharacter(0, 2);
+        TextCharacter open = restored.getTerminal().getCharacter(0, 3);
+        assertEquals("Indexed colors should be restored", new TextColor.Indexed(208), styled.getForegroundColor());
+        assertTrue("Modifiers should be restored", styled.getModifiers().contains(SGR.BOLD));
+        assertEquals("RGB colors should be restored", new TextColor.RGB(1, 2, 3), open.getForegroundColor());
+        assertEquals("ANSI colors should be restored", TextColor.ANSI.BLUE, open.getBackgroundColor());
+
+        restored.println(" line");
+        restored.println("Printed later");
+        restored.saveSnapshot(file); //Replaces the file while its previous version is still mapped
+        restored.scrollTo(0);
+        restored.update();
+        assertEquals("The oldest restored line should be kept", "Line 0", readRow(restored.getTerminal(), 0));
+        restored.close();
+
+        HeadlessConsole again = new HeadlessConsole(new TerminalSize(20, 5), false);
+        again.restoreSnapshot(file);
+        again.update();
+        assertEquals("Lines printed after restoring should be saved", "Open line", readRow(again.getTerminal(), 1));
+        assertEquals("Lines printed after restoring should be saved", "Printed later", readRow(again.getTerminal(), 2));
+        again.close();
+    }
+}
@@ -0,0 +1,94 @@
+package eu.timerertim.lanterna.extras.test.console;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.screen.TerminalScreen;
+import com.googlecode.lanterna.terminal.virtual.DefaultVirtualTerminal;
+import com.googlecode.lanterna.terminal.virtual.VirtualTerminal;
+import eu.timerertim.lanterna.extras.console.Console;
+import eu.timerertim.lanterna.extras.console.ConsoleMetricsListener;
+import eu.timerertim.lanterna.extras.console.ScreenConsole;
+import eu.timerertim.lanterna.extras.console.SplitScreen;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static eu.timerertim.lanterna.extras.test.console.HeadlessConsoleFixture.awaitRow;
+import static eu.timerertim.lanterna.extras.test.console.HeadlessConsoleFixture.readRow;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SplitScreenTest {
+    @Test
+    public void splitScreenPanes() throws Exception {
+        VirtualTerminal terminal = new DefaultVirtualTerminal(new TerminalSize(20, 10));
+        SplitScreen split = new SplitScreen(new TerminalScreen(terminal), 1, 1);
+        Console logs = split.getPane(0);
+        Console status = split.getPane(1);
+        List<Integer> statusRedraws = Collections.synchronizedList(new ArrayList<>());
+        status.println("Ready");
+        status.update();
+        status.addMetricsListener(new ConsoleMetricsListener() {
+            @Override
+            public void onRefresh(long refreshTime, long frameLatency, int redrawnRows) {
+                statusRedraws.add(redrawnRows);
+            }
+        });
+
+        for (int line = 1; line <= 20; line++) {
+            logs.println("Log " + line);
+        }
+        awaitRow(terminal, 2, "Log 20");
+        assertEquals("The pane should only scroll its own rows", "Log 18", readRow(terminal, 0));
+        assertEquals("The other pane should keep its content", "Ready", readRow(terminal, 5));
+        assertTrue("The other pane should not be redrawn", statusRedraws.stream().allMatch(rows -> rows == 0));
+
+        CompletableFuture<String> input = status.readLineAsync();
+        terminal.addInput(new KeyStroke(KeyType.Tab));
+        terminal.addInput(new KeyStroke('o', false, false));
+        terminal.addInput(new KeyStroke('k', false, false));
+        terminal.addInput(new KeyStroke(KeyType.Enter));
+        assertEquals("The keys should be passed to the focused pane", "ok", input.get(5, TimeUnit.SECONDS));
+        assertTrue("Tab should move the focus", split.getFocusedPane() == status);
+        split.close();
+    }
+
+    @Test
+    public void focusAfterUnreadKeys() throws Exception {
+        VirtualTerminal terminal = new DefaultVirtualTerminal(new TerminalSize(20, 10));
+        SplitScreen split = new SplitScreen(new TerminalScreen(terminal), 1, 1);
+        Console status = split.getPane(1);
+        for (int line = 0; line < 20; line++) {
+            status.println("Status " + line);
+        }
+        for (int key = 0; key < 2000; key++) {
+            terminal.addInput(new KeyStroke('x', false, false)); //More than the input buffer holds
+        }
+
+        terminal.addInput(new KeyStroke(KeyType.Tab));
+        terminal.addInput(new KeyStroke(KeyType.Home));
+        awaitRow(terminal, 5, "Status 0");
+        assertTrue("Tab should still move the focus", split.getFocusedPane() == status);
+        split.close();
+    }
+
+    @Test
+    public void keepScreenOfPanes() throws Exception {
+        VirtualTerminal terminal = new DefaultVirtualTerminal(new TerminalSize(20, 10));
+        SplitScreen split = new SplitScreen(new TerminalScreen(terminal), 1, 1);
+        try {
+            ((ScreenConsole) split.getPane(0)).stopScreen();
+            fail("Stopping the shared screen through a pane should be rejected");
+        } catch (IllegalStateException expected) {
+        }
+        split.getPane(1).println("Still running");
+        awaitRow(terminal, 5, "Still running");
+        split.close();
+    }
+}
@@ -0,0 +1,21 @@
+package eu.timerertim.lanterna.extras.test.console;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TextColor;
+import eu.timerertim.lanterna.extras.console.TextStyle;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TextStyleTest {
+    @Test
+    public void equalStyles() {
+        TextStyle style = new TextStyle(TextColor.ANSI.RED, null, SGR.BOLD, SGR.UNDERLINE);
+        TextStyle same = new TextStyle(TextColor.ANSI.RED, null, SGR.UNDERLINE, SGR.BOLD);
+        assertEquals("Styles with the same colors and modifiers should be equal", style, same);
+        assertEquals("Equal styles should have the same hash code", style.hashCode(), same.hashCode());
+        assertEquals("Styles without modifiers should be equal", new TextStyle(null, TextColor.ANSI.BLUE), new TextStyle(null, TextColor.ANSI.BLUE));
+        assertTrue("Styles with other modifiers should not be equal", !style.equals(style.withModifiers(SGR.BOLD)));
+    }
+}
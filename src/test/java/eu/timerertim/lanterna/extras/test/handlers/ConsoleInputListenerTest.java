@@ -0,0 +1,135 @@
+package eu.timerertim.lanterna.extras.test.handlers;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.terminal.virtual.DefaultVirtualTerminal;
+import eu.timerertim.lanterna.extras.handlers.ConsoleInputListener;
+import eu.timerertim.lanterna.extras.handlers.InputListener;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConsoleInputListenerTest {
+    @Test
+    public void readBurstWithoutLoss() {
+        DefaultVirtualTerminal terminal = new DefaultVirtualTerminal(new TerminalSize(80, 24));
+        ConsoleInputListener listener = new ConsoleInputListener(terminal);
+        String burst = "This burst is typed before anyone reads it and exceeds the buffer capacity. ";
+        int repetitions = 50;
+        for (int repetition = 0; repetition < repetitions; repetition++) {
+            for (char character : burst.toCharArray()) {
+                terminal.addInput(new KeyStroke(character, false, false));
+            }
+        }
+
+        StringBuilder read = new StringBuilder();
+        for (int index = 0; index < repetitions * burst.length(); index++) {
+            KeyStroke key = listener.readInput(1, TimeUnit.SECONDS);
+            assertNotNull("Every key should be transmitted", key);
+            read.append(key.getCharacter());
+        }
+        StringBuilder expected = new StringBuilder();
+        for (int repetition = 0; repetition < repetitions; repetition++) {
+            expected.append(burst);
+        }
+        assertEquals("Keys should be transmitted in order", expected.toString(), read.toString());
+        listener.close();
+    }
+
+    @Test
+    public void readWithTimeout() {
+        DefaultVirtualTerminal terminal = new DefaultVirtualTerminal(new TerminalSize(80, 24));
+        ConsoleInputListener listener = new ConsoleInputListener(terminal);
+        assertNull("Null should be returned if no key was made in time", listener.readInput(50, TimeUnit.MILLISECONDS));
+
+        terminal.addInput(new KeyStroke('a', false, false));
+        KeyStroke key = listener.readInput(1, TimeUnit.SECONDS);
+        assertNotNull("A key should be returned before the timeout elapsed", key);
+        assertEquals("The made key should be returned", Character.valueOf('a'), key.getCharacter());
+
+        listener.close();
+        assertNull("Null should be returned after closing", listener.readInput());
+    }
+
+    @Test
+    public void readWithDefaultTimeout() {
+        Queue<KeyStroke> keys = new ArrayDeque<>(Collections.singletonList(new KeyStroke('a', false, false)));
+        InputListener listener = new InputListener() {
+            @Override
+            public KeyStroke readInput() {
+                return keys.poll();
+            }
+
+            @Override
+            public KeyStroke pollInput() {
+                return keys.poll();
+            }
+
+            @Override
+            public void run() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        assertEquals("Waiting keys should be returned", Character.valueOf('a'), listener.readInput(1, TimeUnit.SECONDS).getCharacter());
+        assertNull("Null should be returned if no key was made in time", listener.readInput(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void readOnVirtualThread() {
+        DefaultVirtualTerminal terminal = new DefaultVirtualTerminal(new TerminalSize(80, 24));
+        ConsoleInputListener listener = new ConsoleInputListener(terminal, null, true); //Falls back to a platform thread before Java 21
+        terminal.addInput(new KeyStroke(KeyType.PageUp));
+        terminal.addInput(new KeyStroke('a', false, false));
+        KeyStroke key = listener.readInput(1, TimeUnit.SECONDS);
+        assertNotNull("A key should be returned before the timeout elapsed", key);
+        assertEquals("Scrolling keys should be filtered", Character.valueOf('a'), key.getCharacter());
+        listener.close();
+    }
+
+    @Test
+    public void dropOldestKeysWithoutReader() throws IOException, InterruptedException {
+        DefaultVirtualTerminal terminal = new DefaultVirtualTerminal(new TerminalSize(80, 24));
+        CountDownLatch processed = new CountDownLatch(1);
+        ConsoleInputListener listener = new ConsoleInputListener(terminal) {
+            @Override
+            protected boolean processInput(KeyStroke key) {
+                if (key.getKeyType() == KeyType.End) {
+                    processed.countDown(); //Every key in front of it was already put into the buffer
+                }
+                return super.processInput(key);
+            }
+        };
+        listener.setLossless(false);
+        int keys = 5000;
+        for (int index = 0; index < keys; index++) {
+            terminal.addInput(new KeyStroke((char) ('\u0100' + index), false, false));
+        }
+        terminal.addInput(new KeyStroke(KeyType.End));
+        assertTrue("Input should still be processed once the buffer is full", processed.await(5, TimeUnit.SECONDS));
+
+        KeyStroke first = listener.pollInput();
+        assertNotNull("The keys made last should be kept", first);
+        int next = first.getCharacter() - '\u0100';
+        assertTrue("The oldest keys should be dropped", next > 0);
+        KeyStroke key;
+        while ((key = listener.pollInput()) != null) {
+            assertEquals("The kept keys should stay in order", ++next, key.getCharacter() - '\u0100');
+        }
+        assertEquals("The key made last should be kept", keys - 1, next);
+        listener.close();
+    }
+}
@@ -3,7 +3,10 @@ package eu.timerertim.lanterna.extras.test.utils;
 import eu.timerertim.lanterna.extras.utils.TextUtils;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
 public class TextUtilsTest {
     @Test
@@ -17,10 +20,69 @@ public class TextUtilsTest {
         assertArrayEquals("Text should be softwrapped - width 12", resultText, TextUtils.applySoftwrapping(originalText, 12));
     }
 
+    @Test
+    public void applySoftwrappingDoubleWidth() {
+        String originalText = "\u6F22\u5B57 ab"; //Fewer characters than columns, but wider than them
+        String[] resultText = new String[]{"\u6F22\u5B57", "ab"};
+        assertArrayEquals("Double width characters should be wrapped by their width", resultText, TextUtils.applySoftwrapping(originalText, 5));
+        assertEquals("Rows of double width characters should be counted by their width", 2, TextUtils.countSoftwrappedRows(originalText, 5));
+
+        int[] rowStarts = new int[4];
+        int[] rowEnds = new int[4];
+        assertEquals("Row bounds of double width characters should be found by their width", 2, TextUtils.applySoftwrapping(originalText, 0, 5, rowStarts, rowEnds));
+        assertArrayEquals("Row starts should skip the line break", new int[]{0, 3}, Arrays.copyOf(rowStarts, 2));
+        assertArrayEquals("Row ends should be written", new int[]{2, 5}, Arrays.copyOf(rowEnds, 2));
+
+        assertArrayEquals("Double width characters fitting should stay in one row", new String[]{"\u6F22\u5B57"}, TextUtils.applySoftwrapping("\u6F22\u5B57", 4));
+        assertEquals("Narrow text fitting should be counted once", 1, TextUtils.countSoftwrappedRows("Fits exactly", 12));
+        assertEquals("Narrow text fitting should keep its bounds", 1, TextUtils.applySoftwrapping("Fits", 0, 4, rowStarts, rowEnds));
+        assertArrayEquals("Narrow text fitting should span the whole line", new int[]{0, 4}, new int[]{rowStarts[0], rowEnds[0]});
+    }
+
     @Test
     public void applyHardwrapping() {
         String originalText = "This text will be hardwrapped here";
         String[] resultText = new String[]{"This text", " will be ", "hardwrapp", "ed here"};
         assertArrayEquals("Text should be hardwrapped normally", resultText, TextUtils.applyHardwrapping(originalText, 9));
     }
+
+    @Test
+    public void applyHardwrappingDoubleWidth() {
+        String originalText = "ab\u6F22\u5B57cd";
+        String[] resultText = new String[]{"ab", "\u6F22", "\u5B57c", "d"};
+        assertArrayEquals("Double width characters should be moved to the next row", resultText, TextUtils.applyHardwrapping(originalText, 3));
+    }
+
+    @Test
+    public void applyHardwrappingIntoSink() {
+        String originalText = "This text will be hardwrapped here";
+        int[] rowEnds = new int[8];
+        assertEquals("Rows should be counted", 4, TextUtils.applyHardwrapping(originalText, 0, 9, rowEnds));
+        assertArrayEquals("Row ends should be written", new int[]{9, 18, 27, 34}, Arrays.copyOf(rowEnds, 4));
+        assertEquals("Rows should be counted from the start index", 2, TextUtils.applyHardwrapping(originalText, 18, 9, rowEnds));
+        assertArrayEquals("Row ends should be written from the start index", new int[]{27, 34}, Arrays.copyOf(rowEnds, 2));
+        assertEquals("Rows should be counted even if the sink is too small", 4, TextUtils.applyHardwrapping(originalText, 0, 9, new int[1]));
+    }
+
+    @Test
+    public void applyWrappingRowBounds() {
+        String originalText = "This text will be softwrapped here";
+        int[] rowStarts = new int[8];
+        int[] rowEnds = new int[8];
+        assertEquals("Softwrapped rows should be counted", 4, TextUtils.applySoftwrapping(originalText, 0, 9, rowStarts, rowEnds));
+        assertArrayEquals("Softwrapped row starts should skip the line breaks", new int[]{0, 10, 18, 27}, Arrays.copyOf(rowStarts, 4));
+        assertArrayEquals("Softwrapped row ends should be written", new int[]{9, 17, 27, 34}, Arrays.copyOf(rowEnds, 4));
+
+        assertEquals("Hardwrapped rows should be counted from the start index", 2, TextUtils.applyHardwrapping(originalText, 18, 9, rowStarts, rowEnds));
+        assertArrayEquals("Hardwrapped row starts should be written", new int[]{18, 27}, Arrays.copyOf(rowStarts, 2));
+        assertArrayEquals("Hardwrapped row ends should be written", new int[]{27, 34}, Arrays.copyOf(rowEnds, 2));
+    }
+
+    @Test
+    public void countWrappedRows() {
+        String originalText = "This text will be wrapped here";
+        assertEquals("Softwrapped rows should be counted", 4, TextUtils.countSoftwrappedRows(originalText, 9));
+        assertEquals("Hardwrapped rows should be counted", 4, TextUtils.countHardwrappedRows(originalText, 9));
+        assertEquals("Text fitting in one row should be counted once", 1, TextUtils.countHardwrappedRows("Short", 9));
+    }
 }